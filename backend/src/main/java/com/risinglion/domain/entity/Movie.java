@@ -3,12 +3,16 @@ package com.risinglion.domain.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movies")
 @Table(name = "movies", uniqueConstraints = @UniqueConstraint(columnNames = {"title", "release_date"}))
 @Getter
 @Setter
@@ -36,7 +40,7 @@ public class Movie {
     @Column(name = "imageurl")
     private String imageURL;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Category category;
 
     @OneToMany(mappedBy = "movie")
@@ -0,0 +1,39 @@
+package com.risinglion.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** Review aggregates of one movie; written only through {@code MovieRatingRepository.apply}. */
+@Entity
+@Table(name = "movie_ratings")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovieRating {
+    @Id
+    @Column(name = "movie_id")
+    private Long movieId;
+
+    @Column(name = "rating_count")
+    private int ratingCount;
+
+    @Column(name = "rating_sum")
+    private int ratingSum;
+
+    @Column(name = "stars_1")
+    private int stars1;
+
+    @Column(name = "stars_2")
+    private int stars2;
+
+    @Column(name = "stars_3")
+    private int stars3;
+
+    @Column(name = "stars_4")
+    private int stars4;
+
+    @Column(name = "stars_5")
+    private int stars5;
+}
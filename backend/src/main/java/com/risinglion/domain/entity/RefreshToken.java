@@ -0,0 +1,33 @@
+package com.risinglion.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refresh_tokens", uniqueConstraints = @UniqueConstraint(columnNames = {"token_hash"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "token_hash")
+    private String tokenHash;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    private boolean revoked;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -24,9 +24,9 @@ public class Review {
     @Column(length = 2000)
     private String text;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private User user;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Movie movie;
 }
@@ -18,7 +18,8 @@ import java.util.Set;
 @Builder
 public class Screening {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "screening_seq")
+    @SequenceGenerator(name = "screening_seq", sequenceName = "screening_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime datetime;
@@ -26,10 +27,10 @@ public class Screening {
     @Column(name = "ticket_price")
     private BigDecimal ticketPrice;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Movie movie;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Theater theater;
 
     @OneToMany(mappedBy = "screening")
@@ -2,8 +2,12 @@ package com.risinglion.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "seats")
 @Table(name = "seats", uniqueConstraints = @UniqueConstraint(columnNames = {"row_label", "number", "theater_id"}))
 @Getter
 @Setter
@@ -20,7 +24,7 @@ public class Seat {
 
     private int number;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "theater_id")
     private Theater theater;
 }
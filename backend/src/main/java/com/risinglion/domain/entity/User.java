@@ -36,6 +36,10 @@ public class User {
     @Column(name = "is_admin")
     private boolean isAdmin;
 
+    // tokens carrying an older version are rejected
+    @Column(name = "token_version")
+    private int tokenVersion;
+
     @OneToMany(mappedBy = "user")
     @Builder.Default
     private Set<Booking> bookings = new HashSet<>();
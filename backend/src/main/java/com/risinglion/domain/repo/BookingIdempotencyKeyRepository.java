@@ -0,0 +1,6 @@
+package com.risinglion.domain.repo;
+
+import com.risinglion.domain.entity.BookingIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BookingIdempotencyKeyRepository extends JpaRepository<BookingIdempotencyKey, Long> { }
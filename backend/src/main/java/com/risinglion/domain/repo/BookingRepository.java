@@ -1,14 +1,31 @@
 package com.risinglion.domain.repo;
 
 import com.risinglion.domain.entity.Booking;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @EntityGraph(attributePaths = "tickets")
     List<Booking> findByUserId(Long userId);
+    @EntityGraph(attributePaths = "tickets")
     List<Booking> findByScreeningId(Long screeningId);
     // Checks if a user has any booking for a given movie with a screening time before the specified instant (i.e., already seen)
     boolean existsByUserIdAndScreening_Movie_IdAndScreening_DatetimeBefore(Long userId, Long movieId, LocalDateTime before);
+
+    @Query("select b from Booking b left join fetch b.tickets where b.id = (select k.bookingId from BookingIdempotencyKey k where k.userId = ?1 and k.key = ?2)")
+    Optional<Booking> findByIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Every (customer, movie) pair with at least one booking, for the "also booked" recommendations
+    @Query("select distinct b.user.id as userId, b.screening.movie.id as movieId from Booking b")
+    List<UserMovie> findUserMovies();
+
+    interface UserMovie {
+        Long getUserId();
+        Long getMovieId();
+    }
 }
@@ -0,0 +1,18 @@
+package com.risinglion.domain.repo;
+
+import com.risinglion.domain.entity.MovieRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MovieRatingRepository extends JpaRepository<MovieRating, Long> {
+    // adds the deltas in place, so concurrent reviews of one movie never overwrite each other
+    @Modifying
+    @Query(value = "INSERT INTO movie_ratings (movie_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) " +
+            "VALUES (:movieId, :count, :sum, :s1, :s2, :s3, :s4, :s5) ON DUPLICATE KEY UPDATE " +
+            "rating_count = rating_count + :count, rating_sum = rating_sum + :sum, stars_1 = stars_1 + :s1, " +
+            "stars_2 = stars_2 + :s2, stars_3 = stars_3 + :s3, stars_4 = stars_4 + :s4, stars_5 = stars_5 + :s5", nativeQuery = true)
+    void apply(@Param("movieId") Long movieId, @Param("count") int count, @Param("sum") int sum,
+               @Param("s1") int s1, @Param("s2") int s2, @Param("s3") int s3, @Param("s4") int s4, @Param("s5") int s5);
+}
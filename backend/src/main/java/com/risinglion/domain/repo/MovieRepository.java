@@ -3,11 +3,53 @@ package com.risinglion.domain.repo;
 import com.risinglion.domain.entity.Movie;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface MovieRepository extends JpaRepository<Movie, Long> {
     @Query("SELECT m FROM Movie m WHERE (:q IS NULL OR LOWER(m.title) LIKE LOWER(CONCAT('%', :q, '%'))) AND (:categoryId IS NULL OR m.category.id = :categoryId)")
     Page<Movie> search(@Param("q") String query, @Param("categoryId") Long categoryId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    Optional<Movie> findWithCategoryById(Long id);
+
+    @EntityGraph(attributePaths = "category")
+    List<Movie> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT m FROM Movie m JOIN FETCH m.category")
+    List<Movie> findAllWithCategory();
+
+    // keyset pages: the id breaks ties, so every movie has exactly one position in the order
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT m FROM Movie m WHERE (:categoryId IS NULL OR m.category.id = :categoryId) " +
+            "AND (:id IS NULL OR m.title > :title OR (m.title = :title AND m.id > :id)) ORDER BY m.title, m.id")
+    List<Movie> findTitlePage(@Param("categoryId") Long categoryId, @Param("title") String title, @Param("id") Long id, Pageable limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT m FROM Movie m WHERE (:categoryId IS NULL OR m.category.id = :categoryId) AND m.releaseDate IS NOT NULL " +
+            "AND (:id IS NULL OR m.releaseDate < :date OR (m.releaseDate = :date AND m.id < :id)) ORDER BY m.releaseDate DESC, m.id DESC")
+    List<Movie> findReleasePage(@Param("categoryId") Long categoryId, @Param("date") LocalDate date, @Param("id") Long id, Pageable limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT m FROM Movie m WHERE (:categoryId IS NULL OR m.category.id = :categoryId) AND m.releaseDate IS NULL " +
+            "AND (:id IS NULL OR m.id < :id) ORDER BY m.id DESC")
+    List<Movie> findUndatedPage(@Param("categoryId") Long categoryId, @Param("id") Long id, Pageable limit);
+
+    long countByCategoryId(Long categoryId);
+
+    @Query("SELECT m.id AS id, m.title AS title, m.category.id AS categoryId FROM Movie m")
+    List<MovieTitle> findAllTitles();
+
+    interface MovieTitle {
+        Long getId();
+        String getTitle();
+        Long getCategoryId();
+    }
 }
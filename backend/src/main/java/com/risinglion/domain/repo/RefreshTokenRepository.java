@@ -0,0 +1,22 @@
+package com.risinglion.domain.repo;
+
+import com.risinglion.domain.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    List<RefreshToken> findByRevokedTrueAndExpiresAtAfter(LocalDateTime now);
+
+    // returns 0 if the token is unknown or was already revoked, which makes each token single-use
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.tokenHash = ?1 and t.revoked = false")
+    int revoke(String tokenHash);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= ?1")
+    int deleteExpired(LocalDateTime now);
+}
@@ -1,12 +1,24 @@
 package com.risinglion.domain.repo;
 
 import com.risinglion.domain.entity.Review;
+import com.risinglion.web.dto.CommonDtos.ReviewDto;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByMovieId(Long movieId);
+
+    @Query("select new com.risinglion.web.dto.CommonDtos$ReviewDto(r.id, r.rating, r.text, r.user.id, r.movie.id) from Review r where r.movie.id = ?1")
+    List<ReviewDto> findDtosByMovieId(Long movieId);
     Optional<Review> findByMovieIdAndUserId(Long movieId, Long userId);
+
+    // the row stays locked until the transaction ends, so concurrent edits of one review apply their deltas in turn
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Review r where r.movie.id = ?1 and r.user.id = ?2")
+    Optional<Review> findForUpdate(Long movieId, Long userId);
 }
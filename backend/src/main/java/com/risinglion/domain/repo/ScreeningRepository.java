@@ -7,14 +7,27 @@ import org.springframework.data.jpa.repository.Query;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ScreeningRepository extends JpaRepository<Screening, Long> {
     @Query("select s from Screening s where DATE(s.datetime)=?1")
     List<Screening> findByDate(LocalDate date);
 
-    List<Screening> findByMovieIdAndDatetimeBetween(Long movieId, LocalDateTime start, LocalDateTime end);
+    // half-open, so a screening at midnight belongs to one day only
+    @Query("select s from Screening s where s.datetime >= ?1 and s.datetime < ?2")
+    List<Screening> findStartingBetween(LocalDateTime from, LocalDateTime until);
 
-    List<Screening> findByDatetimeBetween(LocalDateTime start, LocalDateTime end);
+    @Query("select s.theater.id from Screening s where s.id = ?1")
+    Optional<Long> findTheaterIdById(Long id);
 
-    List<Screening> findByTheaterIdAndDatetimeBetween(Long theaterId, LocalDateTime start, LocalDateTime end);
+    @Query("select s.id as id, s.theater.id as theaterId, s.movie.id as movieId, s.datetime as start, s.movie.duration as duration from Screening s")
+    List<ScreeningSlot> findAllSlots();
+
+    interface ScreeningSlot {
+        Long getId();
+        Long getTheaterId();
+        Long getMovieId();
+        LocalDateTime getStart();
+        int getDuration();
+    }
 }
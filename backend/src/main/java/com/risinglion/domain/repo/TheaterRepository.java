@@ -1,6 +1,15 @@
 package com.risinglion.domain.repo;
 
 import com.risinglion.domain.entity.Theater;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface TheaterRepository extends JpaRepository<Theater, Long> { }
+import java.util.List;
+
+public interface TheaterRepository extends JpaRepository<Theater, Long> {
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Theater> findAll();
+}
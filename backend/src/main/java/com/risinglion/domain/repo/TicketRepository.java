@@ -2,10 +2,14 @@ package com.risinglion.domain.repo;
 
 import com.risinglion.domain.entity.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
     List<Ticket> findByScreeningId(Long screeningId);
     boolean existsByScreeningIdAndSeatId(Long screeningId, Long seatId);
+
+    @Query("select t.seat.id from Ticket t where t.screening.id = ?1")
+    List<Long> findSeatIdsByScreeningId(Long screeningId);
 }
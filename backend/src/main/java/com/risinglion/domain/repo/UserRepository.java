@@ -1,12 +1,25 @@
 package com.risinglion.domain.repo;
 
 import com.risinglion.domain.entity.User;
+import com.risinglion.web.dto.CommonDtos.MeResponse;
+import com.risinglion.web.dto.CommonDtos.UserAdminDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    @Query("select new com.risinglion.web.dto.CommonDtos$MeResponse(u.id, u.email, u.isAdmin) from User u where u.id = ?1")
+    Optional<MeResponse> findMeById(Long id);
+
+    @Query("select new com.risinglion.web.dto.CommonDtos$UserAdminDto(u.id, u.username, u.email, u.isAdmin) from User u")
+    List<UserAdminDto> findAllAdminDtos();
+
+    @Query("select u.tokenVersion from User u where u.id = ?1")
+    Optional<Integer> findTokenVersionById(Long id);
 }
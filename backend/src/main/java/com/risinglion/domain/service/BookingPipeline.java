@@ -0,0 +1,201 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Booking;
+import com.risinglion.domain.repo.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional single-writer booking mode. Requests for the same screening are queued and drained by one
+ * worker at a time, so they never compete for the same rows; different screenings drain in parallel.
+ * Each drain groups the queued requests into one transaction around {@link BookingService#book}.
+ */
+@Service
+public class BookingPipeline {
+    private final BookingService bookingService;
+    private final SeatInventory seatInventory;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int queueDepth;
+    private final int maxBatch;
+    private final long timeoutMillis;
+    private final ExecutorService workers;
+
+    private final ConcurrentMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    public BookingPipeline(BookingService bookingService, SeatInventory seatInventory, UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.booking.pipeline.enabled:false}") boolean enabled,
+                           @Value("${app.booking.pipeline.queueDepth:256}") int queueDepth,
+                           @Value("${app.booking.pipeline.maxBatch:16}") int maxBatch,
+                           @Value("${app.booking.pipeline.workers:8}") int workers,
+                           @Value("${app.booking.pipeline.timeoutMillis:5000}") long timeoutMillis) {
+        this.bookingService = bookingService;
+        this.seatInventory = seatInventory;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.queueDepth = queueDepth;
+        this.maxBatch = maxBatch;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "booking-pipeline-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Queues the booking behind earlier requests for the same screening and waits for its outcome, at most
+     * {@code app.booking.pipeline.timeoutMillis}. A request still queued by then is dropped.
+     */
+    public Booking book(Long userId, Long screeningId, List<Long> seatIds, String idempotencyKey) {
+        try {
+            // wait on a copy, so the request itself is still completed by the worker
+            return submit(userId, screeningId, seatIds, idempotencyKey).copy().orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof TimeoutException) {
+                throw new RejectedExecutionException("Booking did not complete in time; retry with the same Idempotency-Key");
+            }
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+
+    public CompletableFuture<Booking> submit(Long userId, Long screeningId, List<Long> seatIds, String idempotencyKey) {
+        Request request = new Request(userId, screeningId, List.copyOf(seatIds), idempotencyKey,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis), new CompletableFuture<>());
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(screeningId, Lane::new);
+            synchronized (lane) {
+                // an idle lane leaves the map; whoever still holds it takes a fresh one
+                if (lane.retired) continue;
+                if (!lane.queue.offer(request)) {
+                    throw new RejectedExecutionException("Too many pending bookings for this screening");
+                }
+            }
+            lane.schedule();
+            return request.result;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdown();
+    }
+
+    private void process(List<Request> batch) {
+        // settle conflicts that are already visible in memory before opening a transaction
+        List<Request> runnable = new ArrayList<>(batch.size());
+        Set<Long> claimed = new HashSet<>();
+        long now = System.nanoTime();
+        for (Request r : batch) {
+            if (now - r.deadline > 0) {
+                // the caller has given up waiting and was told to retry
+                r.result.completeExceptionally(new RejectedExecutionException("Booking timed out in the queue"));
+                continue;
+            }
+            boolean overlaps = r.seatIds.stream().anyMatch(claimed::contains);
+            if (overlaps || seatInventory.anyTaken(r.screeningId, r.seatIds)) {
+                r.result.completeExceptionally(new DataIntegrityViolationException("Seat already taken"));
+            } else {
+                claimed.addAll(r.seatIds);
+                runnable.add(r);
+            }
+        }
+        if (runnable.isEmpty()) return;
+        if (runnable.size() > 1) {
+            try {
+                List<Booking> bookings = transactionTemplate.execute(status -> {
+                    List<Booking> out = new ArrayList<>(runnable.size());
+                    for (Request r : runnable) out.add(bookingService.book(r.userId, r.screeningId, r.seatIds, r.idempotencyKey, userRepository));
+                    return out;
+                });
+                for (int i = 0; i < runnable.size(); i++) runnable.get(i).result.complete(bookings.get(i));
+                return;
+            } catch (RuntimeException ex) {
+                // one request spoiled the combined transaction; retry them one by one so only that one fails
+            }
+        }
+        for (Request r : runnable) {
+            try {
+                // a seat conflict in the combined transaction evicted the screening; reload it outside the next one
+                seatInventory.warm(r.screeningId);
+                r.result.complete(bookingService.book(r.userId, r.screeningId, r.seatIds, r.idempotencyKey, userRepository));
+            } catch (RuntimeException ex) {
+                r.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private record Request(Long userId, Long screeningId, List<Long> seatIds, String idempotencyKey, long deadline, CompletableFuture<Booking> result) {}
+
+    private final class Lane {
+        private final Long screeningId;
+        private final BlockingQueue<Request> queue;
+        private final AtomicBoolean running = new AtomicBoolean();
+        // guarded by this lane's lock, like every offer to the queue
+        private boolean retired;
+
+        Lane(Long screeningId) {
+            this.screeningId = screeningId;
+            this.queue = new LinkedBlockingQueue<>(queueDepth);
+        }
+
+        void schedule() {
+            if (running.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            List<Request> batch = new ArrayList<>(maxBatch);
+            while (true) {
+                queue.drainTo(batch, maxBatch);
+                if (batch.isEmpty()) {
+                    // offers happen under the same lock, so nothing can slip in between the check and the removal
+                    synchronized (this) {
+                        if (queue.isEmpty()) {
+                            retired = true;
+                            lanes.remove(screeningId, this);
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                try {
+                    process(batch);
+                } catch (RuntimeException ex) {
+                    batch.forEach(r -> r.result.completeExceptionally(ex));
+                }
+                batch.clear();
+            }
+        }
+    }
+}
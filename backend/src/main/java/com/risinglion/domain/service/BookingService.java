@@ -3,47 +3,129 @@ package com.risinglion.domain.service;
 import com.risinglion.domain.entity.*;
 import com.risinglion.domain.repo.*;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class BookingService {
     private final ScreeningRepository screeningRepository;
     private final SeatRepository seatRepository;
     private final BookingRepository bookingRepository;
-    private final TicketRepository ticketRepository;
+    private final BookingIdempotencyKeyRepository idempotencyKeyRepository;
+    private final SeatInventory seatInventory;
+    private final SeatHoldService seatHolds;
+    private final ApplicationEventPublisher events;
 
-    public BookingService(ScreeningRepository screeningRepository, SeatRepository seatRepository, BookingRepository bookingRepository, TicketRepository ticketRepository) {
+    public BookingService(ScreeningRepository screeningRepository, SeatRepository seatRepository, BookingRepository bookingRepository,
+                          BookingIdempotencyKeyRepository idempotencyKeyRepository, SeatInventory seatInventory, SeatHoldService seatHolds, ApplicationEventPublisher events) {
         this.screeningRepository = screeningRepository;
         this.seatRepository = seatRepository;
         this.bookingRepository = bookingRepository;
-        this.ticketRepository = ticketRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.seatInventory = seatInventory;
+        this.seatHolds = seatHolds;
+        this.events = events;
     }
 
     @Transactional
     public Booking book(Long userId, Long screeningId, List<Long> seatIds, UserRepository userRepository) {
-        Screening screening = screeningRepository.findById(screeningId).orElseThrow(() -> new EntityNotFoundException("Screening not found"));
-        User user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
+        return book(userId, screeningId, seatIds, null, userRepository);
+    }
 
-        // Re-check availability to fail fast
-        for (Long seatId : seatIds) {
-            if (ticketRepository.existsByScreeningIdAndSeatId(screeningId, seatId)) {
+    /**
+     * Books the seats and, when an idempotency key is given, records it in the same transaction so a retry
+     * arriving after a restart still finds the booking instead of booking again.
+     */
+    @Transactional
+    public Booking book(Long userId, Long screeningId, List<Long> seatIds, String idempotencyKey, UserRepository userRepository) {
+        Booking booking = bookAll(userId, List.of(new SeatSelection(screeningId, seatIds)), userRepository).get(0);
+        if (idempotencyKey != null) {
+            idempotencyKeyRepository.save(BookingIdempotencyKey.builder()
+                    .userId(userId).key(idempotencyKey).bookingId(booking.getId()).createdAt(LocalDateTime.now()).build());
+        }
+        return booking;
+    }
+
+    /**
+     * Books several screenings for one customer, all or nothing. Screenings and seats are each loaded with
+     * one query, availability is checked for the whole batch in memory, and every booking and ticket is
+     * flushed as batched inserts in the same transaction.
+     */
+    @Transactional
+    public List<Booking> bookAll(Long userId, List<SeatSelection> selections, UserRepository userRepository) {
+        Map<Long, Screening> screenings = new HashMap<>();
+        screeningRepository.findAllById(selections.stream().map(SeatSelection::screeningId).toList())
+                .forEach(s -> screenings.put(s.getId(), s));
+        // callers pass the id of an already authenticated user, so a reference is enough for the foreign key
+        User user = userRepository.getReferenceById(userId);
+
+        Map<Long, Set<Long>> requested = new HashMap<>();
+        Set<Long> allSeatIds = new HashSet<>();
+        for (SeatSelection sel : selections) {
+            if (!screenings.containsKey(sel.screeningId())) throw new EntityNotFoundException("Screening not found");
+            Set<Long> seen = requested.computeIfAbsent(sel.screeningId(), id -> new HashSet<>());
+            for (Long seatId : sel.seatIds()) {
+                if (!seen.add(seatId)) throw new IllegalArgumentException("Duplicate seat in request");
+            }
+            allSeatIds.addAll(sel.seatIds());
+        }
+        requested.forEach((screeningId, seatIds) -> {
+            // Contention is settled by the holds; only seats the caller currently holds may be booked
+            if (seatHolds.isRequired() && !seatHolds.isHeldBy(screeningId, userId, seatIds)) {
+                throw new DataIntegrityViolationException("Seats are not held by this customer");
+            }
+            // Re-check availability against the in-memory inventory to fail fast without a query per seat
+            if (seatInventory.anyTaken(screeningId, seatIds)) {
                 throw new DataIntegrityViolationException("Seat already taken");
             }
+        });
+
+        Map<Long, Seat> seats = new HashMap<>();
+        seatRepository.findAllById(allSeatIds).forEach(seat -> seats.put(seat.getId(), seat));
+        List<Booking> bookings = new ArrayList<>(selections.size());
+        for (SeatSelection sel : selections) {
+            bookings.add(newBooking(user, screenings.get(sel.screeningId()), sel.seatIds(), seats));
+        }
+        // ids come from the pooled generators, so all bookings and tickets go out as one batched flush
+        try {
+            bookings = bookingRepository.saveAllAndFlush(bookings);
+        } catch (DataIntegrityViolationException ex) {
+            // the ticket key is the only unique one here: it caught a seat the inventory still had as free
+            requested.keySet().forEach(seatInventory::evict);
+            throw ex;
+        }
+        for (SeatSelection sel : selections) {
+            events.publishEvent(new SeatsBookedEvent(sel.screeningId(), screenings.get(sel.screeningId()).getMovie().getId(), userId, List.copyOf(sel.seatIds())));
         }
+        return bookings;
+    }
+
+    private Booking newBooking(User user, Screening screening, List<Long> seatIds, Map<Long, Seat> seats) {
+        Long theaterId = screening.getTheater().getId();
         BigDecimal total = screening.getTicketPrice().multiply(BigDecimal.valueOf(seatIds.size()));
         Booking booking = Booking.builder().user(user).screening(screening).totalPrice(total).build();
-        booking = bookingRepository.save(booking);
         for (Long seatId : seatIds) {
-            Seat seat = seatRepository.findById(seatId).orElseThrow(() -> new EntityNotFoundException("Seat not found"));
-            // Persist ticket; unique constraint on (screening_id, seat_id) will prevent double booking
-            Ticket t = Ticket.builder().booking(booking).screening(screening).seat(seat).build();
-            ticketRepository.save(t);
+            Seat seat = seats.get(seatId);
+            if (seat == null) throw new EntityNotFoundException("Seat not found");
+            if (!seat.getTheater().getId().equals(theaterId)) {
+                throw new IllegalArgumentException("Seat does not belong to the screening's theater");
+            }
+            // unique constraint on (screening_id, seat_id) will prevent double booking
+            booking.getTickets().add(Ticket.builder().booking(booking).screening(screening).seat(seat).build());
         }
         return booking;
     }
+
+    public record SeatSelection(Long screeningId, List<Long> seatIds) {}
 }
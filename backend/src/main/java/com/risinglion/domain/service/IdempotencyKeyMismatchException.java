@@ -0,0 +1,8 @@
+package com.risinglion.domain.service;
+
+/** An Idempotency-Key was reused with a different request than the one it was first sent with. */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException() {
+        super("Idempotency-Key was already used for a different request");
+    }
+}
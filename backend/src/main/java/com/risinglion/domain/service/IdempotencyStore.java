@@ -0,0 +1,90 @@
+package com.risinglion.domain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory record of in-flight and completed requests keyed by (user, Idempotency-Key).
+ * The first request runs the action; concurrent duplicates wait for its result and later ones get the
+ * stored result. Failed actions, i.e. ones that throw, are forgotten so the client can retry them.
+ * Each entry remembers a fingerprint of its request, and a key reused for another request is rejected.
+ */
+@Component
+public class IdempotencyStore {
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    // entries share one TTL, so insertion order is also expiry order
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyStore(@Value("${app.idempotency.ttlMinutes:1440}") long ttlMinutes,
+                            @Value("${app.idempotency.maxEntries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMinutes * 60 * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param fingerprint canonical form of the request, equal for requests that must be treated as the same
+     * @throws IdempotencyKeyMismatchException if the key is known for a different fingerprint
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Long userId, String idempotencyKey, String fingerprint, Supplier<T> action) {
+        long now = System.currentTimeMillis();
+        evict(now);
+        Key key = new Key(userId, idempotencyKey);
+        Entry mine = new Entry(key, fingerprint, now + ttlMillis);
+        Entry current = entries.compute(key, (k, existing) -> existing == null || existing.expired(now) ? mine : existing);
+        if (current != mine) {
+            if (!current.fingerprint.equals(fingerprint)) throw new IdempotencyKeyMismatchException();
+            try {
+                return (T) current.result.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) throw cause;
+                throw ex;
+            }
+        }
+        order.add(mine);
+        try {
+            T value = action.get();
+            mine.result.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            entries.remove(key, mine);
+            mine.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null && (head.expired(now) || entries.size() > maxEntries)) {
+            if (order.remove(head)) entries.remove(head.key, head);
+        }
+    }
+
+    private record Key(Long userId, String idempotencyKey) {}
+
+    private static final class Entry {
+        private final Key key;
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(Key key, String fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean expired(long now) { return expiresAt <= now; }
+    }
+}
@@ -0,0 +1,88 @@
+package com.risinglion.domain.service;
+
+/**
+ * Open-addressing map from positive {@code long} keys to {@code int} counts, without boxing either side.
+ * Linear probing with backward-shift deletion, so removals leave no tombstones. Not thread-safe.
+ */
+final class LongIntHashMap {
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() { return size; }
+
+    /** Number of slots; iterate {@code 0 .. capacity() - 1} and skip slots whose {@link #keyAt} is 0. */
+    int capacity() { return keys.length; }
+
+    long keyAt(int slot) { return keys[slot]; }
+
+    int valueAt(int slot) { return values[slot]; }
+
+    int get(long key) {
+        for (int i = home(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return 0;
+    }
+
+    /** Adds {@code delta} to the key's value, inserting it at 0 first if absent, and returns the new value. */
+    int addTo(long key, int delta) {
+        int i = home(key);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i] += delta;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        if (++size * 2 > keys.length) grow();
+        return delta;
+    }
+
+    void remove(long key) {
+        int hole = home(key);
+        while (keys[hole] != key) {
+            if (keys[hole] == EMPTY) return;
+            hole = (hole + 1) & mask;
+        }
+        // pull later entries of the same probe run back into the hole, so lookups never stop early
+        for (int j = (hole + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            if (((j - home(keys[j])) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+        size--;
+    }
+
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int j = home(oldKeys[i]);
+            while (keys[j] != EMPTY) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.repo.MovieRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keyset pages over the movie catalogue, by title or newest release first. Each page seeks past the
+ * last row of the previous one through an opaque cursor, so deep pages cost the same as the first and
+ * no page needs a {@code COUNT(*)}. The total is only counted on request and then kept for a while.
+ */
+@Service
+public class MovieCatalog {
+    private static final long ALL_CATEGORIES = -1L;
+
+    private final MovieRepository movieRepository;
+    private final long countTtlMillis;
+
+    private final ConcurrentMap<Long, Count> counts = new ConcurrentHashMap<>();
+
+    public MovieCatalog(MovieRepository movieRepository,
+                        @Value("${app.movies.countTtlSeconds:60}") long countTtlSeconds) {
+        this.movieRepository = movieRepository;
+        this.countTtlMillis = countTtlSeconds * 1000;
+    }
+
+    public enum Sort { TITLE, RELEASE_DATE }
+
+    /** One page of movies and the cursor of the next one, or a null cursor on the last page. */
+    public record Slice(List<Movie> movies, String nextCursor) {}
+
+    public Slice page(Sort sort, Long categoryId, String cursor, int size) {
+        Cursor after = cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor, sort);
+        // one row more than asked tells whether another page follows
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Movie> rows;
+        if (sort == Sort.TITLE) {
+            rows = movieRepository.findTitlePage(categoryId, after == null ? null : after.key, after == null ? null : after.id, limit);
+        } else if (after != null && after.key.isEmpty()) {
+            rows = movieRepository.findUndatedPage(categoryId, after.id, limit);
+        } else {
+            LocalDate date = after == null ? null : after.date();
+            rows = new ArrayList<>(movieRepository.findReleasePage(categoryId, date, after == null ? null : after.id, limit));
+            // movies without a release date come last, newest id first
+            if (rows.size() <= size) rows.addAll(movieRepository.findUndatedPage(categoryId, null, PageRequest.of(0, size + 1 - rows.size())));
+        }
+        if (rows.size() <= size) return new Slice(rows, null);
+        List<Movie> page = rows.subList(0, size);
+        return new Slice(page, Cursor.of(sort, page.get(size - 1)).encode());
+    }
+
+    /** Number of movies, optionally in one category; counted on first use and cached for the configured TTL. */
+    public long count(Long categoryId) {
+        long now = System.currentTimeMillis();
+        Long key = categoryId == null ? ALL_CATEGORIES : categoryId;
+        Count c = counts.get(key);
+        if (c == null || c.expiresAt <= now) {
+            long value = categoryId == null ? movieRepository.count() : movieRepository.countByCategoryId(categoryId);
+            c = new Count(value, now + countTtlMillis);
+            counts.put(key, c);
+        }
+        return c.value;
+    }
+
+    /** Called after a movie is added, removed or moved to another category. */
+    public void invalidateCounts() {
+        counts.clear();
+    }
+
+    private record Count(long value, long expiresAt) {}
+
+    /** Sort key and id of the last movie on a page; the key is empty for a movie without a release date. */
+    private record Cursor(Sort sort, long id, String key) {
+        static Cursor of(Sort sort, Movie m) {
+            String key = sort == Sort.TITLE ? m.getTitle() : m.getReleaseDate() == null ? "" : m.getReleaseDate().toString();
+            return new Cursor(sort, m.getId(), key);
+        }
+
+        LocalDate date() {
+            return LocalDate.parse(key);
+        }
+
+        String encode() {
+            String raw = sort.ordinal() + ":" + id + ":" + key;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token, Sort expected) {
+            Cursor c;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                // the key goes last since titles may contain the separator
+                String[] parts = raw.split(":", 3);
+                c = new Cursor(Sort.values()[Integer.parseInt(parts[0])], Long.parseLong(parts[1]), parts[2]);
+                if (c.sort == Sort.RELEASE_DATE && !c.key.isEmpty()) c.date();
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (c.sort != expected) throw new IllegalArgumentException("Cursor belongs to a different sort order");
+            return c;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.repo.MovieRepository;
+import com.risinglion.mapper.Mappers;
+import com.risinglion.web.dto.CommonDtos.MovieDto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * BM25-ranked full-text index over movie titles and descriptions, answered entirely from memory.
+ * Each term keeps a postings list of (document, term frequency) pairs, delta- and varint-encoded into
+ * one byte array. Documents only ever get appended: an edit appends a new document and tombstones the
+ * old one, and the index is rebuilt once tombstones pile up. Hits are kept as rating-less DTOs, not entities.
+ */
+@Service
+public class MovieSearchIndex {
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "he", "her", "his", "in", "is",
+            "it", "its", "of", "on", "or", "she", "that", "the", "their", "they", "this", "to", "was", "who", "with");
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // a title word counts as much as this many description words
+    private static final int TITLE_WEIGHT = 3;
+
+    private final MovieRepository movieRepository;
+    private final Mappers mappers;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment;
+    // while a rebuild reads the table: the latest change per movie (null for a removal), replayed onto the new segment
+    private Map<Long, Doc> pending;
+
+    public MovieSearchIndex(MovieRepository movieRepository, Mappers mappers) {
+        this.movieRepository = movieRepository;
+        this.mappers = mappers;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (current() == null) rebuild();
+    }
+
+    /**
+     * Reloads every movie and re-indexes them, tokenizing in parallel. Edits that arrive while the table
+     * is read are recorded and applied to the new segment before it replaces the old one.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Segment fresh = null;
+        try {
+            // categories are fetched with the movies since the category name is part of each hit
+            List<Movie> movies = movieRepository.findAllWithCategory();
+            List<Doc> docs = movies.parallelStream().map(this::analyze).toList();
+            fresh = new Segment();
+            docs.forEach(fresh::append);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (fresh != null) {
+                    for (Map.Entry<Long, Doc> change : pending.entrySet()) {
+                        fresh.remove(change.getKey());
+                        if (change.getValue() != null) fresh.append(change.getValue());
+                    }
+                    segment = fresh;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** Movies matching any query term, best BM25 score first, optionally limited to a category; ratings are left empty. */
+    public Page<MovieDto> search(String query, Long categoryId, Pageable pageable) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query == null ? "" : query)));
+        Segment s = segmentOrLoad();
+        lock.readLock().lock();
+        try {
+            return s.search(terms, categoryId, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Movie movie) {
+        Doc doc = analyze(movie);
+        segmentOrLoad();
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.put(doc.id, doc);
+            segment.remove(doc.id);
+            segment.append(doc);
+            if (segment.needsCompaction()) segment = segment.compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long movieId) {
+        segmentOrLoad();
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.put(movieId, null);
+            segment.remove(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Segment current() {
+        lock.readLock().lock();
+        try {
+            return segment;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Segment segmentOrLoad() {
+        Segment s = current();
+        if (s != null) return s;
+        synchronized (this) {
+            if (current() == null) rebuild();
+            return current();
+        }
+    }
+
+    private Doc analyze(Movie movie) {
+        Map<String, Integer> tf = new HashMap<>();
+        int length = 0;
+        for (String t : tokenize(movie.getTitle())) {
+            tf.merge(t, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String t : tokenize(movie.getDescription())) {
+            tf.merge(t, 1, Integer::sum);
+            length++;
+        }
+        MovieDto hit = mappers.toMovieDto(movie, null);
+        return new Doc(movie.getId(), movie.getCategory() == null ? null : movie.getCategory().getId(), hit, tf, length);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) return List.of();
+        List<String> out = new ArrayList<>();
+        for (String word : NON_WORD.split(MovieTitleIndex.normalize(text))) {
+            if (word.length() < 2 || STOP_WORDS.contains(word)) continue;
+            out.add(stem(word));
+        }
+        return out;
+    }
+
+    // plural folding only: "heists" finds "heist"
+    private static String stem(String word) {
+        if (word.length() > 4 && word.endsWith("ies")) return word.substring(0, word.length() - 3) + "y";
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) return word.substring(0, word.length() - 1);
+        return word;
+    }
+
+    private record Doc(Long id, Long categoryId, MovieDto hit, Map<String, Integer> termFrequencies, int length) {}
+
+    /** Append-only set of documents addressed by ordinal; guarded by the index's lock. */
+    private static final class Segment {
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final BitSet deleted = new BitSet();
+        private int liveDocs;
+        private long liveLength;
+
+        void append(Doc doc) {
+            int ordinal = docs.size();
+            docs.add(doc);
+            ordinals.put(doc.id, ordinal);
+            doc.termFrequencies.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new Postings()).add(ordinal, tf));
+            liveDocs++;
+            liveLength += doc.length;
+        }
+
+        void remove(Long movieId) {
+            Integer ordinal = ordinals.remove(movieId);
+            if (ordinal == null) return;
+            deleted.set(ordinal);
+            liveDocs--;
+            liveLength -= docs.get(ordinal).length;
+        }
+
+        boolean needsCompaction() {
+            int dead = deleted.cardinality();
+            return dead > 64 && dead > docs.size() / 5;
+        }
+
+        Segment compact() {
+            Segment fresh = new Segment();
+            for (int i = 0; i < docs.size(); i++) {
+                if (!deleted.get(i)) fresh.append(docs.get(i));
+            }
+            return fresh;
+        }
+
+        Page<MovieDto> search(List<String> terms, Long categoryId, Pageable pageable) {
+            if (terms.isEmpty() || liveDocs == 0) return Page.empty(pageable);
+            float avgLength = (float) liveLength / liveDocs;
+            float[] scores = new float[docs.size()];
+            int[] touched = new int[docs.size()];
+            int hits = 0;
+            for (String term : terms) {
+                Postings p = postings.get(term);
+                if (p == null) continue;
+                // document frequency still counts tombstoned documents until the next compaction
+                int df = Math.min(p.count, liveDocs);
+                float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                int pos = 0, doc = 0;
+                for (int i = 0; i < p.count; i++) {
+                    int delta = 0, shift = 0, b;
+                    do { b = p.data[pos++]; delta |= (b & 0x7F) << shift; shift += 7; } while (b < 0);
+                    doc += delta;
+                    int tf = 0;
+                    shift = 0;
+                    do { b = p.data[pos++]; tf |= (b & 0x7F) << shift; shift += 7; } while (b < 0);
+                    if (deleted.get(doc)) continue;
+                    float norm = K1 * (1 - B + B * docs.get(doc).length / avgLength);
+                    if (scores[doc] == 0) touched[hits++] = doc;
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+            // only the requested page is ordered: a min-heap keeps the best offset + size hits
+            int keep = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), hits);
+            long[] heap = new long[Math.max(keep, 1)];
+            int heapSize = 0, total = 0;
+            for (int i = 0; i < hits; i++) {
+                int doc = touched[i];
+                if (categoryId != null && !categoryId.equals(docs.get(doc).categoryId)) continue;
+                total++;
+                if (keep == 0) continue;
+                long key = rankKey(scores[doc], doc);
+                if (heapSize < keep) {
+                    heap[heapSize++] = key;
+                    siftUp(heap, heapSize - 1);
+                } else if (key > heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, heapSize);
+                }
+            }
+            long[] best = Arrays.copyOf(heap, heapSize);
+            Arrays.sort(best);
+            List<MovieDto> content = new ArrayList<>();
+            for (int i = best.length - 1 - (int) pageable.getOffset(); i >= 0; i--) {
+                content.add(docs.get(Integer.MAX_VALUE - (int) best[i]).hit);
+            }
+            return new PageImpl<>(content, pageable, total);
+        }
+
+        /** Orders by score, then earlier ordinal; scores are positive, so their float bits sort like the values. */
+        private static long rankKey(float score, int doc) {
+            return ((long) Float.floatToIntBits(score) << 32) | (Integer.MAX_VALUE - doc);
+        }
+
+        private static void siftUp(long[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) return;
+                long t = heap[parent]; heap[parent] = heap[i]; heap[i] = t;
+                i = parent;
+            }
+        }
+
+        private static void siftDown(long[] heap, int size) {
+            int i = 0;
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, min = i;
+                if (l < size && heap[l] < heap[min]) min = l;
+                if (r < size && heap[r] < heap[min]) min = r;
+                if (min == i) return;
+                long t = heap[min]; heap[min] = heap[i]; heap[i] = t;
+                i = min;
+            }
+        }
+    }
+
+    /** Ascending (ordinal delta, term frequency) pairs, each a little-endian base-128 varint. */
+    private static final class Postings {
+        private byte[] data = new byte[8];
+        private int size;
+        private int count;
+        private int lastDoc;
+
+        void add(int doc, int tf) {
+            writeVarint(doc - lastDoc);
+            writeVarint(tf);
+            lastDoc = doc;
+            count++;
+        }
+
+        private void writeVarint(int v) {
+            if (size + 5 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            while ((v & ~0x7F) != 0) {
+                data[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            data[size++] = (byte) v;
+        }
+    }
+}
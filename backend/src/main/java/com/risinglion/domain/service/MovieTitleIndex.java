@@ -0,0 +1,204 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.repo.MovieRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over movie titles. Substring search intersects the posting lists of the
+ * query's trigrams and confirms the few candidates, instead of a {@code LIKE '%q%'} table scan per
+ * keystroke. Autocomplete ranks titles by word-trigram similarity, so small typos still match.
+ * Loaded at startup and kept current by the admin movie endpoints.
+ */
+@Service
+public class MovieTitleIndex {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // same cut-off as PostgreSQL's pg_trgm similarity operator
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private final MovieRepository movieRepository;
+
+    private final Map<Long, Entry> entries = new TreeMap<>();
+    private volatile Snapshot snapshot;
+
+    public MovieTitleIndex(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        snapshot();
+    }
+
+    /** Ids of movies whose title contains the query (case- and accent-insensitive), in id order. */
+    public List<Long> search(String query, Long categoryId) {
+        Snapshot s = snapshot();
+        String q = query == null ? "" : normalize(query);
+        long[] candidates = q.length() < 3 ? s.ids : s.candidates(trigrams(q));
+        List<Long> out = new ArrayList<>();
+        for (long id : candidates) {
+            Entry e = s.entries.get(id);
+            if ((categoryId == null || categoryId.equals(e.categoryId)) && e.normalized.contains(q)) out.add(id);
+        }
+        return out;
+    }
+
+    /** Titles similar to what was typed so far, best match first; exact prefixes rank ahead of fuzzy hits. */
+    public List<Suggestion> suggest(String query, Long categoryId) {
+        Snapshot s = snapshot();
+        String q = query == null ? "" : normalize(query);
+        if (q.isBlank()) return List.of();
+        Set<String> grams = wordTrigrams(q);
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String g : grams) {
+            long[] ids = s.fuzzy.get(g);
+            if (ids != null) for (long id : ids) shared.merge(id, 1, Integer::sum);
+        }
+        List<Suggestion> out = new ArrayList<>();
+        for (Map.Entry<Long, Integer> hit : shared.entrySet()) {
+            Entry e = s.entries.get(hit.getKey());
+            if (categoryId != null && !categoryId.equals(e.categoryId)) continue;
+            int common = hit.getValue();
+            double similarity = (double) common / (grams.size() + e.wordGrams - common);
+            boolean prefix = e.normalized.startsWith(q);
+            if (prefix || similarity >= MIN_SIMILARITY) out.add(new Suggestion(e.id, e.title, prefix ? 1 + similarity : similarity));
+        }
+        out.sort(Comparator.comparingDouble(Suggestion::score).reversed().thenComparing(Suggestion::title));
+        return out;
+    }
+
+    public synchronized void put(Movie movie) {
+        snapshot();
+        entries.put(movie.getId(), new Entry(movie.getId(), movie.getTitle(), movie.getCategory().getId()));
+        snapshot = new Snapshot(entries.values());
+    }
+
+    public synchronized void remove(Long movieId) {
+        snapshot();
+        if (entries.remove(movieId) != null) snapshot = new Snapshot(entries.values());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) {
+                for (MovieRepository.MovieTitle t : movieRepository.findAllTitles()) {
+                    entries.put(t.getId(), new Entry(t.getId(), t.getTitle(), t.getCategoryId()));
+                }
+                snapshot = new Snapshot(entries.values());
+            }
+            return snapshot;
+        }
+    }
+
+    static String normalize(String text) {
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String s) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) grams.add(s.substring(i, i + 3));
+        return grams;
+    }
+
+    /** Trigrams of each word padded as {@code "  word "}, so word starts weigh more than word ends. */
+    private static Set<String> wordTrigrams(String s) {
+        Set<String> grams = new HashSet<>();
+        for (String word : NON_WORD.split(s)) {
+            if (!word.isEmpty()) grams.addAll(trigrams("  " + word + " "));
+        }
+        return grams;
+    }
+
+    public record Suggestion(Long id, String title, double score) {}
+
+    private static final class Entry {
+        private final long id;
+        private final String title;
+        private final Long categoryId;
+        private final String normalized;
+        private final int wordGrams;
+
+        Entry(long id, String title, Long categoryId) {
+            this.id = id;
+            this.title = title;
+            this.categoryId = categoryId;
+            this.normalized = normalize(title);
+            this.wordGrams = wordTrigrams(normalized).size();
+        }
+    }
+
+    /** Immutable view swapped in whole on every change, so readers never lock. */
+    private static final class Snapshot {
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final long[] ids;
+        private final Map<String, long[]> substring;
+        private final Map<String, long[]> fuzzy;
+
+        Snapshot(Collection<Entry> all) {
+            this.ids = new long[all.size()];
+            Map<String, List<Long>> sub = new HashMap<>();
+            Map<String, List<Long>> fz = new HashMap<>();
+            int i = 0;
+            // entries arrive in id order, so every posting list comes out sorted
+            for (Entry e : all) {
+                entries.put(e.id, e);
+                ids[i++] = e.id;
+                for (String g : trigrams(e.normalized)) sub.computeIfAbsent(g, k -> new ArrayList<>()).add(e.id);
+                for (String g : wordTrigrams(e.normalized)) fz.computeIfAbsent(g, k -> new ArrayList<>()).add(e.id);
+            }
+            this.substring = toArrays(sub);
+            this.fuzzy = toArrays(fz);
+        }
+
+        /** Ids present in the posting list of every trigram, i.e. titles that may contain the query. */
+        long[] candidates(Set<String> grams) {
+            List<long[]> lists = new ArrayList<>(grams.size());
+            for (String g : grams) {
+                long[] ids = substring.get(g);
+                if (ids == null) return new long[0];
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(a -> a.length));
+            long[] result = lists.get(0);
+            for (int k = 1; k < lists.size() && result.length > 0; k++) result = intersect(result, lists.get(k));
+            return result;
+        }
+
+        private static long[] intersect(long[] a, long[] b) {
+            long[] out = new long[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else { out[n++] = a[i]; i++; j++; }
+            }
+            return Arrays.copyOf(out, n);
+        }
+
+        private static Map<String, long[]> toArrays(Map<String, List<Long>> postings) {
+            Map<String, long[]> out = new HashMap<>(postings.size() * 2);
+            postings.forEach((g, ids) -> out.put(g, ids.stream().mapToLong(Long::longValue).toArray()));
+            return out;
+        }
+    }
+}
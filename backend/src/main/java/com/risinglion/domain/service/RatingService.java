@@ -0,0 +1,174 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.entity.MovieRating;
+import com.risinglion.domain.entity.Review;
+import com.risinglion.domain.entity.User;
+import com.risinglion.domain.repo.MovieRatingRepository;
+import com.risinglion.domain.repo.ReviewRepository;
+import com.risinglion.web.dto.CommonDtos.RatingDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Rating count, sum and star histogram per movie. Every review write adds its delta to the movie's
+ * {@code movie_ratings} row in the same transaction; after commit the in-memory copy and the top-rated
+ * ranking follow, so reads never aggregate reviews.
+ */
+@Service
+public class RatingService {
+    private static final RatingDto UNRATED = new RatingDto(0, 0, List.of(0, 0, 0, 0, 0));
+    private static final Comparator<Stats> BEST_FIRST = Comparator.comparingDouble((Stats s) -> s.score).reversed()
+            .thenComparing(Comparator.comparingInt((Stats s) -> s.count).reversed())
+            .thenComparingLong(s -> s.movieId);
+
+    private final ReviewRepository reviewRepository;
+    private final MovieRatingRepository movieRatingRepository;
+    private final ApplicationEventPublisher events;
+    private final double priorMean;
+    private final int priorWeight;
+
+    private final ConcurrentMap<Long, Stats> stats = new ConcurrentHashMap<>();
+    // a score only depends on the movie's own reviews, so each review moves exactly one entry
+    private final ConcurrentSkipListSet<Stats> ranking = new ConcurrentSkipListSet<>(BEST_FIRST);
+
+    public RatingService(ReviewRepository reviewRepository, MovieRatingRepository movieRatingRepository, ApplicationEventPublisher events,
+                         @Value("${app.ratings.priorMean:3.0}") double priorMean,
+                         @Value("${app.ratings.priorWeight:5}") int priorWeight) {
+        this.reviewRepository = reviewRepository;
+        this.movieRatingRepository = movieRatingRepository;
+        this.events = events;
+        this.priorMean = priorMean;
+        this.priorWeight = priorWeight;
+    }
+
+    @PostConstruct
+    void load() {
+        for (MovieRating r : movieRatingRepository.findAll()) {
+            if (r.getRatingCount() == 0) continue;
+            int[] stars = {0, r.getStars1(), r.getStars2(), r.getStars3(), r.getStars4(), r.getStars5()};
+            Stats s = new Stats(r.getMovieId(), r.getRatingCount(), r.getRatingSum(), stars, score(r.getRatingCount(), r.getRatingSum()));
+            stats.put(s.movieId, s);
+            ranking.add(s);
+        }
+    }
+
+    /**
+     * Creates the user's review of the movie, or edits it if there is one. The existing review is read
+     * locked, so the rating it had before is the one the delta is taken from even under concurrent edits.
+     */
+    @Transactional
+    public Review save(Movie movie, User user, int rating, String text) {
+        Review review = reviewRepository.findForUpdate(movie.getId(), user.getId())
+                .orElseGet(() -> Review.builder().user(user).movie(movie).build());
+        return write(review, rating, text);
+    }
+
+    /** Edits the user's review of the movie; empty if there is none. */
+    @Transactional
+    public Optional<Review> update(Long movieId, Long userId, int rating, String text) {
+        return reviewRepository.findForUpdate(movieId, userId).map(review -> write(review, rating, text));
+    }
+
+    /** Deletes the user's review of the movie; false if there is none. */
+    @Transactional
+    public boolean delete(Long movieId, Long userId) {
+        Review review = reviewRepository.findForUpdate(movieId, userId).orElse(null);
+        if (review == null) return false;
+        reviewRepository.delete(review);
+        apply(movieId, review.getRating(), 0);
+        return true;
+    }
+
+    private Review write(Review review, int rating, String text) {
+        // 0 for a new review
+        int previousRating = review.getRating();
+        review.setRating(rating);
+        review.setText(text);
+        Review saved = reviewRepository.save(review);
+        apply(saved.getMovie().getId(), previousRating, rating);
+        return saved;
+    }
+
+    public RatingDto rating(Long movieId) {
+        Stats s = stats.get(movieId);
+        if (s == null) return UNRATED;
+        return new RatingDto(s.count, (double) s.sum / s.count, List.of(s.stars[1], s.stars[2], s.stars[3], s.stars[4], s.stars[5]));
+    }
+
+    /**
+     * Ids of the best rated movies. Averages are pulled towards {@code app.ratings.priorMean} by
+     * {@code priorWeight} virtual reviews, so a single five-star review does not top the list.
+     */
+    public List<Long> topRated(int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        for (Stats s : ranking) {
+            if (ids.size() == limit) break;
+            ids.add(s.movieId);
+        }
+        return ids;
+    }
+
+    @TransactionalEventListener
+    public void onReviewRated(ReviewRatedEvent event) {
+        stats.compute(event.movieId(), (id, old) -> {
+            int[] stars = old == null ? new int[6] : old.stars.clone();
+            stars[event.previousRating()]--;
+            stars[event.rating()]++;
+            int count = (old == null ? 0 : old.count) + presence(event.rating()) - presence(event.previousRating());
+            int sum = (old == null ? 0 : old.sum) + event.rating() - event.previousRating();
+            if (old != null) ranking.remove(old);
+            if (count <= 0) return null;
+            Stats next = new Stats(id, count, sum, stars, score(count, sum));
+            ranking.add(next);
+            return next;
+        });
+    }
+
+    private void apply(Long movieId, int previousRating, int rating) {
+        if (previousRating == rating) return;
+        // slot 0 stands for "no review" and is not stored
+        int[] stars = new int[6];
+        stars[previousRating]--;
+        stars[rating]++;
+        movieRatingRepository.apply(movieId, presence(rating) - presence(previousRating), rating - previousRating,
+                stars[1], stars[2], stars[3], stars[4], stars[5]);
+        events.publishEvent(new ReviewRatedEvent(movieId, previousRating, rating));
+    }
+
+    private double score(int count, int sum) {
+        return (priorMean * priorWeight + sum) / (priorWeight + count);
+    }
+
+    private static int presence(int rating) {
+        return rating > 0 ? 1 : 0;
+    }
+
+    private static final class Stats {
+        private final long movieId;
+        private final int count;
+        private final int sum;
+        private final int[] stars;
+        private final double score;
+
+        Stats(long movieId, int count, int sum, int[] stars, double score) {
+            this.movieId = movieId;
+            this.count = count;
+            this.sum = sum;
+            this.stars = stars;
+            this.score = score;
+        }
+    }
+}
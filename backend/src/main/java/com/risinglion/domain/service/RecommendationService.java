@@ -0,0 +1,169 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.repo.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * "Also booked" recommendations from a sparse movie-to-movie co-occurrence matrix, where two movies
+ * co-occur once for every customer who booked both. Built from the booking history at startup, one movie
+ * row per parallel task, then kept current from committed bookings. A row holds at most
+ * {@code maxNeighbours} entries: a full row that meets a new neighbour replaces its weakest one and gives
+ * the newcomer that count plus one (Space-Saving), so neighbours that keep co-occurring stay in the row.
+ */
+@Service
+public class RecommendationService {
+    private final BookingRepository bookingRepository;
+    private final int maxNeighbours;
+
+    private final ConcurrentMap<Long, Row> rows = new ConcurrentHashMap<>();
+    // movies each customer has booked, sorted, so a new booking can be paired with the earlier ones
+    private final ConcurrentMap<Long, long[]> userMovies = new ConcurrentHashMap<>();
+
+    public RecommendationService(BookingRepository bookingRepository,
+                                 @Value("${app.recommendations.maxNeighbours:100}") int maxNeighbours) {
+        this.bookingRepository = bookingRepository;
+        this.maxNeighbours = maxNeighbours;
+    }
+
+    @PostConstruct
+    void load() {
+        Map<Long, List<Long>> customersByMovie = new HashMap<>();
+        Map<Long, List<Long>> moviesByCustomer = new HashMap<>();
+        for (BookingRepository.UserMovie um : bookingRepository.findUserMovies()) {
+            customersByMovie.computeIfAbsent(um.getMovieId(), id -> new ArrayList<>()).add(um.getUserId());
+            moviesByCustomer.computeIfAbsent(um.getUserId(), id -> new ArrayList<>()).add(um.getMovieId());
+        }
+        moviesByCustomer.forEach((userId, movies) -> userMovies.put(userId, movies.stream().mapToLong(Long::longValue).sorted().toArray()));
+        // every row only reads the finished customer lists, so rows are built independently
+        customersByMovie.entrySet().parallelStream().forEach(e -> {
+            long movieId = e.getKey();
+            LongIntHashMap counts = new LongIntHashMap(16);
+            for (Long userId : e.getValue()) {
+                for (long other : userMovies.get(userId)) {
+                    if (other != movieId) counts.addTo(other, 1);
+                }
+            }
+            rows.put(movieId, new Row(e.getValue().size(), strongest(counts, maxNeighbours)));
+        });
+    }
+
+    /**
+     * Up to {@code limit} movies most often booked by the customers of the given one, by cosine similarity:
+     * the co-occurrence count divided by the geometric mean of both movies' customer counts, so a
+     * blockbuster everyone books does not top every list.
+     */
+    public List<Long> alsoBooked(Long movieId, int limit) {
+        Row row = rows.get(movieId);
+        if (row == null) return List.of();
+        long[] ids = new long[limit];
+        double[] scores = new double[limit];
+        int found = 0;
+        synchronized (row) {
+            LongIntHashMap n = row.neighbours;
+            for (int slot = 0; slot < n.capacity(); slot++) {
+                long other = n.keyAt(slot);
+                if (other == 0) continue;
+                Row otherRow = rows.get(other);
+                if (otherRow == null) continue;
+                double score = n.valueAt(slot) / Math.sqrt((double) row.customers * otherRow.customers);
+                // insertion into the small sorted top list; ties go to the lower id
+                int i = found < limit ? found++ : limit;
+                while (i > 0 && (scores[i - 1] < score || (scores[i - 1] == score && ids[i - 1] > other))) {
+                    if (i < limit) {
+                        scores[i] = scores[i - 1];
+                        ids[i] = ids[i - 1];
+                    }
+                    i--;
+                }
+                if (i < limit) {
+                    scores[i] = score;
+                    ids[i] = other;
+                }
+            }
+        }
+        List<Long> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) result.add(ids[i]);
+        return result;
+    }
+
+    @TransactionalEventListener
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        long movieId = event.movieId();
+        // compute serialises bookings of the same customer, so each of their movie pairs is counted once
+        userMovies.compute(event.userId(), (userId, seen) -> {
+            if (seen != null && Arrays.binarySearch(seen, movieId) >= 0) return seen;
+            Row row = rows.computeIfAbsent(movieId, id -> new Row(0, new LongIntHashMap(16)));
+            row.addCustomer();
+            if (seen == null) return new long[]{movieId};
+            for (long other : seen) {
+                row.increment(other, maxNeighbours);
+                rows.computeIfAbsent(other, id -> new Row(0, new LongIntHashMap(16))).increment(movieId, maxNeighbours);
+            }
+            long[] next = Arrays.copyOf(seen, seen.length + 1);
+            next[seen.length] = movieId;
+            Arrays.sort(next);
+            return next;
+        });
+    }
+
+    /** The {@code max} highest counts of a freshly built row. */
+    private static LongIntHashMap strongest(LongIntHashMap counts, int max) {
+        if (counts.size() <= max) return counts;
+        // count in the high bits and slot in the low bits, so one primitive sort orders by count
+        long[] packed = new long[counts.size()];
+        int n = 0;
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            if (counts.keyAt(slot) != 0) packed[n++] = ((long) counts.valueAt(slot) << 32) | slot;
+        }
+        Arrays.sort(packed);
+        LongIntHashMap kept = new LongIntHashMap(max);
+        for (int i = packed.length - max; i < packed.length; i++) {
+            int slot = (int) packed[i];
+            kept.addTo(counts.keyAt(slot), counts.valueAt(slot));
+        }
+        return kept;
+    }
+
+    private static final class Row {
+        private volatile int customers;
+        private final LongIntHashMap neighbours;
+
+        Row(int customers, LongIntHashMap neighbours) {
+            this.customers = customers;
+            this.neighbours = neighbours;
+        }
+
+        synchronized void addCustomer() {
+            customers++;
+        }
+
+        synchronized void increment(long other, int maxNeighbours) {
+            if (neighbours.size() < maxNeighbours || neighbours.get(other) > 0) {
+                neighbours.addTo(other, 1);
+                return;
+            }
+            long weakest = 0;
+            int min = Integer.MAX_VALUE;
+            for (int slot = 0; slot < neighbours.capacity(); slot++) {
+                long key = neighbours.keyAt(slot);
+                if (key != 0 && neighbours.valueAt(slot) < min) {
+                    min = neighbours.valueAt(slot);
+                    weakest = key;
+                }
+            }
+            neighbours.remove(weakest);
+            neighbours.addTo(other, min + 1);
+        }
+    }
+}
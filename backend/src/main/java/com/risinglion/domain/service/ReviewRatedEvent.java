@@ -0,0 +1,7 @@
+package com.risinglion.domain.service;
+
+/**
+ * Published by {@link RatingService} when a review is written or removed. A rating of 0 means no review,
+ * so a new review has {@code previousRating} 0 and a deleted one has {@code rating} 0.
+ */
+public record ReviewRatedEvent(Long movieId, int previousRating, int rating) {}
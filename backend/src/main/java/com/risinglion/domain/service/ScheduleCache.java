@@ -0,0 +1,89 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Screening;
+import com.risinglion.domain.repo.ScreeningRepository;
+import com.risinglion.mapper.Mappers;
+import com.risinglion.web.dto.CommonDtos.ScreeningDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Screenings per day (by start time, UTC), built once into immutable, time-ordered lists and kept until
+ * {@link ScreeningScheduler} changes that day. Per-movie and multi-day views are cut from the cached days,
+ * so a week view is at most seven small queries when cold and none when warm.
+ */
+@Service
+public class ScheduleCache {
+    private final ScreeningRepository screeningRepository;
+    private final Mappers mappers;
+    private final int maxRangeDays;
+    private final int maxDays;
+
+    private final Map<LocalDate, List<ScreeningDto>> days;
+    // bumped on every change, so a day read before the change is not cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public ScheduleCache(ScreeningRepository screeningRepository, Mappers mappers,
+                         @Value("${app.schedule.maxRangeDays:31}") int maxRangeDays,
+                         @Value("${app.schedule.maxDays:90}") int maxDays) {
+        this.screeningRepository = screeningRepository;
+        this.mappers = mappers;
+        this.maxRangeDays = maxRangeDays;
+        this.maxDays = maxDays;
+        this.days = new LinkedHashMap<>(128, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, List<ScreeningDto>> eldest) {
+                return size() > ScheduleCache.this.maxDays;
+            }
+        };
+    }
+
+    public List<ScreeningDto> day(LocalDate date) {
+        List<ScreeningDto> cached;
+        synchronized (days) {
+            cached = days.get(date);
+        }
+        if (cached != null) return cached;
+        long seen = generation.get();
+        List<ScreeningDto> built = screeningRepository.findStartingBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay()).stream()
+                .sorted(Comparator.comparing(Screening::getDatetime).thenComparing(Screening::getId))
+                .map(mappers::toScreeningDto).toList();
+        synchronized (days) {
+            if (generation.get() == seen) days.put(date, built);
+        }
+        return built;
+    }
+
+    public List<ScreeningDto> day(LocalDate date, Long movieId) {
+        return day(date).stream().filter(s -> movieId.equals(s.movieId())).toList();
+    }
+
+    /** Screenings from {@code from} to {@code to}, both inclusive, in time order. */
+    public List<ScreeningDto> range(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("'to' must not be before 'from'");
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("A range may span at most " + maxRangeDays + " days");
+        }
+        List<ScreeningDto> all = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) all.addAll(day(d));
+        return all;
+    }
+
+    @EventListener
+    public void onScreeningsChanged(ScreeningsChangedEvent event) {
+        synchronized (days) {
+            generation.incrementAndGet();
+            days.keySet().removeAll(event.days());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.entity.Screening;
+import com.risinglion.domain.entity.Theater;
+import com.risinglion.domain.repo.MovieRepository;
+import com.risinglion.domain.repo.TheaterRepository;
+import com.risinglion.mapper.Mappers;
+import com.risinglion.web.dto.CommonDtos.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk schedule import from explicit screenings or recurrence rules. Movies and theaters are looked up
+ * once for the whole set, overlaps are checked in memory by {@link ScreeningScheduler}, and the
+ * screenings that fit are saved as batched inserts in one transaction. Every rejected row is reported.
+ */
+@Service
+public class ScreeningImporter {
+    private final MovieRepository movieRepository;
+    private final TheaterRepository theaterRepository;
+    private final ScreeningScheduler scheduler;
+    private final Mappers mappers;
+    private final int maxRows;
+
+    public ScreeningImporter(MovieRepository movieRepository, TheaterRepository theaterRepository, ScreeningScheduler scheduler, Mappers mappers,
+                             @Value("${app.screenings.maxImportRows:20000}") int maxRows) {
+        this.movieRepository = movieRepository;
+        this.theaterRepository = theaterRepository;
+        this.scheduler = scheduler;
+        this.mappers = mappers;
+        this.maxRows = maxRows;
+    }
+
+    /** Explicit screenings are rows 1..n; the occurrences of the recurrences are numbered after them, rule by rule. */
+    public ScreeningImportReportDto importRequest(ScreeningImportRequest req, boolean dryRun) {
+        List<Row> rows = new ArrayList<>();
+        if (req.screenings() != null) {
+            for (ScreeningCreateRequest s : req.screenings()) {
+                add(rows, new Row(rows.size() + 1, s.movieId(), s.theaterId(), s.datetime() == null ? null : utc(s.datetime()), s.ticketPrice(), null));
+            }
+        }
+        if (req.recurrences() != null) {
+            for (ScreeningRecurrenceRequest rule : req.recurrences()) expand(rule, rows);
+        }
+        return run(rows, dryRun);
+    }
+
+    /**
+     * Reads {@code movieId,theaterId,datetime,ticketPrice} lines, datetime as an ISO instant, with an
+     * optional header line. Rows are numbered by line.
+     */
+    public ScreeningImportReportDto importCsv(Reader csv, boolean dryRun) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        BufferedReader in = new BufferedReader(csv);
+        int line = 0;
+        for (String text = in.readLine(); text != null; text = in.readLine()) {
+            line++;
+            if (text.isBlank() || (line == 1 && text.startsWith("movieId"))) continue;
+            add(rows, parse(line, text));
+        }
+        return run(rows, dryRun);
+    }
+
+    private ScreeningImportReportDto run(List<Row> rows, boolean dryRun) {
+        Set<Long> movieIds = new HashSet<>();
+        Set<Long> theaterIds = new HashSet<>();
+        for (Row r : rows) {
+            if (r.movieId != null) movieIds.add(r.movieId);
+            if (r.theaterId != null) theaterIds.add(r.theaterId);
+        }
+        Map<Long, Movie> movies = movieRepository.findAllById(movieIds).stream().collect(Collectors.toMap(Movie::getId, Function.identity()));
+        Map<Long, Theater> theaters = theaterRepository.findAllById(theaterIds).stream().collect(Collectors.toMap(Theater::getId, Function.identity()));
+
+        List<ScreeningImportIssueDto> issues = new ArrayList<>();
+        List<Row> batchRows = new ArrayList<>(rows.size());
+        List<Screening> batch = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            String reason = r.error != null ? r.error
+                    : r.start == null ? "Missing datetime"
+                    : r.ticketPrice == null || r.ticketPrice.signum() < 0 ? "Missing or negative ticket price"
+                    : !movies.containsKey(r.movieId) ? "Movie not found"
+                    : !theaters.containsKey(r.theaterId) ? "Theater not found"
+                    : null;
+            if (reason != null) {
+                issues.add(issue(r, reason));
+                continue;
+            }
+            batchRows.add(r);
+            batch.add(Screening.builder().movie(movies.get(r.movieId)).theater(theaters.get(r.theaterId))
+                    .datetime(r.start).ticketPrice(r.ticketPrice).build());
+        }
+        List<Integer> conflicts = scheduler.saveAll(batch, dryRun);
+        for (int i : conflicts) issues.add(issue(batchRows.get(i), "Overlaps another screening in this theater"));
+        issues.sort(Comparator.comparingInt(ScreeningImportIssueDto::row));
+        return new ScreeningImportReportDto(batch.size() - conflicts.size(), issues.size(), dryRun, issues);
+    }
+
+    private void expand(ScreeningRecurrenceRequest rule, List<Row> rows) {
+        if (rule.from() == null || rule.until() == null || rule.time() == null) {
+            throw new IllegalArgumentException("A recurrence needs from, until and time");
+        }
+        if (rule.until().isBefore(rule.from())) throw new IllegalArgumentException("A recurrence cannot end before it starts");
+        Set<DayOfWeek> days = rule.days() == null || rule.days().isEmpty() ? EnumSet.allOf(DayOfWeek.class) : EnumSet.copyOf(rule.days());
+        for (LocalDate d = rule.from(); !d.isAfter(rule.until()); d = d.plusDays(1)) {
+            if (days.contains(d.getDayOfWeek())) add(rows, new Row(rows.size() + 1, rule.movieId(), rule.theaterId(), d.atTime(rule.time()), rule.ticketPrice(), null));
+        }
+    }
+
+    private void add(List<Row> rows, Row row) {
+        if (rows.size() == maxRows) throw new IllegalArgumentException("An import may contain at most " + maxRows + " screenings");
+        rows.add(row);
+    }
+
+    private static Row parse(int line, String text) {
+        String[] f = text.split(",", -1);
+        if (f.length != 4) return new Row(line, null, null, null, null, "Expected movieId,theaterId,datetime,ticketPrice");
+        try {
+            BigDecimal price = f[3].isBlank() ? null : new BigDecimal(f[3].trim());
+            return new Row(line, Long.parseLong(f[0].trim()), Long.parseLong(f[1].trim()), utc(Instant.parse(f[2].trim())), price, null);
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            return new Row(line, null, null, null, null, "Malformed value: " + ex.getMessage());
+        }
+    }
+
+    private ScreeningImportIssueDto issue(Row r, String reason) {
+        return new ScreeningImportIssueDto(r.row, r.theaterId, mappers.localDateTimeToUtcZ(r.start), reason);
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return instant.atZone(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    private record Row(int row, Long movieId, Long theaterId, LocalDateTime start, BigDecimal ticketPrice, String error) {}
+}
@@ -0,0 +1,227 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Screening;
+import com.risinglion.domain.repo.ScreeningRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Time ranges of all screenings, per theater, for overlap checks and free slots without a query.
+ * Each theater's ranges are ordered by start and the longest one is remembered, so the ranges that can
+ * overlap a new one all start within that length before it: one ordered seek plus the few ranges in that
+ * window. Writes to a theater hold its lock from the check until the row is saved, so two concurrent
+ * admin edits cannot both claim the same hall.
+ */
+@Service
+public class ScreeningScheduler {
+    private final ScreeningRepository screeningRepository;
+    private final ApplicationEventPublisher events;
+
+    private final ConcurrentMap<Long, TheaterSchedule> theaters = new ConcurrentHashMap<>();
+    // theater of every screening, to find its old range when it moves to another theater
+    private final ConcurrentMap<Long, Long> theaterOf = new ConcurrentHashMap<>();
+
+    public ScreeningScheduler(ScreeningRepository screeningRepository, ApplicationEventPublisher events) {
+        this.screeningRepository = screeningRepository;
+        this.events = events;
+    }
+
+    /** A free range in a theater's day; {@code end} is exclusive. */
+    public record FreeSlot(LocalDateTime start, LocalDateTime end) {}
+
+    @PostConstruct
+    void load() {
+        for (ScreeningRepository.ScreeningSlot s : screeningRepository.findAllSlots()) {
+            schedule(s.getTheaterId()).put(new Slot(s.getId(), s.getMovieId(), s.getStart(), s.getStart().plusMinutes(s.getDuration())));
+            theaterOf.put(s.getId(), s.getTheaterId());
+        }
+    }
+
+    /**
+     * Saves a new or changed screening if its theater is free for the movie's running time.
+     * The movie must be loaded, since its duration decides where the screening ends.
+     *
+     * @throws IllegalArgumentException if it overlaps another screening in the theater
+     */
+    public Screening save(Screening screening) {
+        Long theaterId = screening.getTheater().getId();
+        LocalDateTime start = screening.getDatetime();
+        LocalDateTime end = start.plusMinutes(screening.getMovie().getDuration());
+        TheaterSchedule schedule = schedule(theaterId);
+        Screening saved;
+        Set<LocalDate> days = new HashSet<>();
+        days.add(start.toLocalDate());
+        synchronized (schedule) {
+            if (schedule.overlaps(start, end, screening.getId())) {
+                throw new IllegalArgumentException("Screening overlaps with an existing screening in this theater");
+            }
+            saved = screeningRepository.save(screening);
+            addDay(days, schedule.put(new Slot(saved.getId(), screening.getMovie().getId(), start, end)));
+        }
+        Long previous = theaterOf.put(saved.getId(), theaterId);
+        if (previous != null && !previous.equals(theaterId)) addDay(days, schedule(previous).remove(saved.getId()));
+        events.publishEvent(new ScreeningsChangedEvent(days));
+        return saved;
+    }
+
+    /**
+     * Saves new screenings in one transaction, skipping each one that overlaps the existing schedule or
+     * an earlier screening of the list; with {@code dryRun} nothing is saved. All theaters involved stay
+     * locked until the batch is committed.
+     *
+     * @return positions in {@code batch} of the skipped screenings
+     */
+    public List<Integer> saveAll(List<Screening> batch, boolean dryRun) {
+        // locks are always taken in theater id order, so two imports cannot deadlock
+        TreeMap<Long, TheaterSchedule> locked = new TreeMap<>();
+        for (Screening s : batch) locked.computeIfAbsent(s.getTheater().getId(), this::schedule);
+        return withLocks(new ArrayList<>(locked.values()), 0, () -> {
+            Map<Long, TheaterSchedule> pending = new HashMap<>();
+            List<Integer> rejected = new ArrayList<>();
+            List<Screening> accepted = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Screening s = batch.get(i);
+                Long theaterId = s.getTheater().getId();
+                LocalDateTime start = s.getDatetime();
+                LocalDateTime end = start.plusMinutes(s.getMovie().getDuration());
+                TheaterSchedule batchSchedule = pending.computeIfAbsent(theaterId, id -> new TheaterSchedule());
+                if (locked.get(theaterId).overlaps(start, end, null) || batchSchedule.overlaps(start, end, null)) {
+                    rejected.add(i);
+                    continue;
+                }
+                // not saved yet, so a placeholder id
+                batchSchedule.put(new Slot(-1L - i, s.getMovie().getId(), start, end));
+                accepted.add(s);
+            }
+            if (dryRun || accepted.isEmpty()) return rejected;
+            Set<LocalDate> days = new HashSet<>();
+            for (Screening saved : screeningRepository.saveAll(accepted)) {
+                Long theaterId = saved.getTheater().getId();
+                locked.get(theaterId).put(new Slot(saved.getId(), saved.getMovie().getId(), saved.getDatetime(),
+                        saved.getDatetime().plusMinutes(saved.getMovie().getDuration())));
+                theaterOf.put(saved.getId(), theaterId);
+                days.add(saved.getDatetime().toLocalDate());
+            }
+            events.publishEvent(new ScreeningsChangedEvent(days));
+            return rejected;
+        });
+    }
+
+    public void delete(Long screeningId) {
+        screeningRepository.deleteById(screeningId);
+        Long theaterId = theaterOf.remove(screeningId);
+        if (theaterId == null) return;
+        Set<LocalDate> days = new HashSet<>();
+        addDay(days, schedule(theaterId).remove(screeningId));
+        events.publishEvent(new ScreeningsChangedEvent(days));
+    }
+
+    /** Called after a movie's running time changed, so its screenings end at the new time. */
+    public void movieDurationChanged(Long movieId, int duration) {
+        for (TheaterSchedule schedule : theaters.values()) schedule.resize(movieId, duration);
+    }
+
+    /** Gaps of at least {@code minMinutes} between the screenings of a theater on the given day. */
+    public List<FreeSlot> freeSlots(Long theaterId, LocalDate date, int minMinutes) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        List<FreeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = dayStart;
+        for (Slot s : schedule(theaterId).within(dayStart, dayEnd)) {
+            if (s.start.isAfter(cursor)) addIfLongEnough(free, cursor, s.start, minMinutes);
+            if (s.end.isAfter(cursor)) cursor = s.end;
+        }
+        if (cursor.isBefore(dayEnd)) addIfLongEnough(free, cursor, dayEnd, minMinutes);
+        return free;
+    }
+
+    private static void addIfLongEnough(List<FreeSlot> free, LocalDateTime start, LocalDateTime end, int minMinutes) {
+        if (!start.plusMinutes(minMinutes).isAfter(end)) free.add(new FreeSlot(start, end));
+    }
+
+    private static void addDay(Set<LocalDate> days, LocalDateTime start) {
+        if (start != null) days.add(start.toLocalDate());
+    }
+
+    private static <T> T withLocks(List<TheaterSchedule> schedules, int from, Supplier<T> body) {
+        if (from == schedules.size()) return body.get();
+        synchronized (schedules.get(from)) {
+            return withLocks(schedules, from + 1, body);
+        }
+    }
+
+    private TheaterSchedule schedule(Long theaterId) {
+        return theaters.computeIfAbsent(theaterId, id -> new TheaterSchedule());
+    }
+
+    private record Slot(long id, long movieId, LocalDateTime start, LocalDateTime end) {}
+
+    private static final class TheaterSchedule {
+        // starts are unique per theater (theater_id, datetime)
+        private final TreeMap<LocalDateTime, Slot> byStart = new TreeMap<>();
+        private final Map<Long, LocalDateTime> startOf = new HashMap<>();
+        // only ever grows, which keeps the search window safe after removals
+        private long longestMinutes;
+
+        /** Returns the start the slot had before, if it was already here. */
+        synchronized LocalDateTime put(Slot slot) {
+            LocalDateTime previous = remove(slot.id);
+            byStart.put(slot.start, slot);
+            startOf.put(slot.id, slot.start);
+            longestMinutes = Math.max(longestMinutes, Duration.between(slot.start, slot.end).toMinutes());
+            return previous;
+        }
+
+        synchronized LocalDateTime remove(long id) {
+            LocalDateTime start = startOf.remove(id);
+            if (start != null) byStart.remove(start);
+            return start;
+        }
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end, Long ignoreId) {
+            // a zero-length range overlaps nothing, but still may not share a start (theater_id, datetime)
+            Slot same = byStart.get(start);
+            if (same != null && (ignoreId == null || same.id != ignoreId)) return true;
+            for (Slot s : candidates(start, end)) {
+                if (ignoreId != null && s.id == ignoreId) continue;
+                if (s.end.isAfter(start)) return true;
+            }
+            return false;
+        }
+
+        /** Ranges that overlap {@code [from, to)}, by start. */
+        synchronized List<Slot> within(LocalDateTime from, LocalDateTime to) {
+            List<Slot> slots = new ArrayList<>();
+            for (Slot s : candidates(from, to)) {
+                if (s.end.isAfter(from)) slots.add(s);
+            }
+            return slots;
+        }
+
+        synchronized void resize(long movieId, int duration) {
+            for (Slot s : List.copyOf(byStart.values())) {
+                if (s.movieId == movieId) put(new Slot(s.id, movieId, s.start, s.start.plusMinutes(duration)));
+            }
+        }
+
+        // anything starting at or before from - longest has ended by from
+        private Iterable<Slot> candidates(LocalDateTime from, LocalDateTime to) {
+            return byStart.subMap(from.minusMinutes(longestMinutes), false, to, false).values();
+        }
+    }
+}
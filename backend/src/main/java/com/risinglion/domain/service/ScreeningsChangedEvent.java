@@ -0,0 +1,10 @@
+package com.risinglion.domain.service;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Published by {@link ScreeningScheduler} after screenings were saved or deleted; {@code days} are the
+ * start dates they had before and after the change.
+ */
+public record ScreeningsChangedEvent(Set<LocalDate> days) {}
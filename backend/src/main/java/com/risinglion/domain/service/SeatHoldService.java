@@ -0,0 +1,188 @@
+package com.risinglion.domain.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Short-lived, in-memory seat reservations taken before checkout. Each seat of a screening maps to at most
+ * one live hold, claimed with an atomic compute on a concurrent map, so competing customers are settled
+ * without touching the database.
+ */
+@Service
+public class SeatHoldService {
+    private final SeatInventory seatInventory;
+    private final long ttlMillis;
+    private final int maxSeats;
+    private final boolean required;
+
+    private final ConcurrentMap<Long, ConcurrentMap<Long, Hold>> screenings = new ConcurrentHashMap<>();
+    // every hold lives for the same TTL, so expiries come due in insertion order and a FIFO queue is the whole timer
+    private final Queue<Hold> expiries = new ConcurrentLinkedQueue<>();
+    private final Thread reaper;
+
+    public SeatHoldService(SeatInventory seatInventory,
+                           @Value("${app.holds.ttlSeconds:300}") long ttlSeconds,
+                           @Value("${app.holds.maxSeats:10}") int maxSeats,
+                           @Value("${app.holds.required:true}") boolean required) {
+        this.seatInventory = seatInventory;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxSeats = maxSeats;
+        this.required = required;
+        this.reaper = new Thread(this::reapExpired, "seat-hold-reaper");
+        this.reaper.setDaemon(true);
+        this.reaper.start();
+    }
+
+    public boolean isRequired() { return required; }
+
+    /**
+     * Replaces the caller's holds on the screening with the given seats. Either all seats are held
+     * and the expiry is returned, or nothing changes and the call fails.
+     */
+    public Instant hold(Long screeningId, Long userId, List<Long> seatIds) {
+        if (seatIds.size() > maxSeats) {
+            throw new IllegalArgumentException("At most " + maxSeats + " seats can be held at once");
+        }
+        SeatMap map = seatInventory.seatMap(screeningId).orElseThrow(() -> new IllegalArgumentException("Screening not found"));
+        for (Long seatId : seatIds) {
+            int p = map.layout().positionOf(seatId);
+            if (p < 0) throw new IllegalArgumentException("Seat does not belong to the screening's theater");
+            if (map.isTaken(p)) throw new DataIntegrityViolationException("Seat already taken");
+        }
+
+        long now = System.currentTimeMillis();
+        Hold hold = new Hold(screeningId, userId, now + ttlMillis, List.copyOf(seatIds));
+        while (true) {
+            ConcurrentMap<Long, Hold> seats = screenings.computeIfAbsent(screeningId, id -> new ConcurrentHashMap<>());
+            claim(seats, hold, now);
+            // the reaper drops a screening's map once it drains; a claim that raced into a dropped map starts over
+            if (screenings.get(screeningId) == seats) break;
+        }
+        expiries.add(hold);
+        return Instant.ofEpochMilli(hold.expiresAt);
+    }
+
+    private void claim(ConcurrentMap<Long, Hold> seats, Hold hold, long now) {
+        // the caller's own holds this one replaces, put back if another customer holds one of the seats
+        Map<Long, Hold> replaced = new HashMap<>();
+        List<Long> acquired = new ArrayList<>(hold.seatIds.size());
+        for (Long seatId : hold.seatIds) {
+            Hold current = seats.compute(seatId, (id, existing) -> {
+                if (existing == null || existing.expired(now)) return hold;
+                if (!existing.userId.equals(hold.userId)) return existing;
+                replaced.put(id, existing);
+                return hold;
+            });
+            if (current != hold) {
+                for (Long id : acquired) {
+                    Hold previous = replaced.get(id);
+                    if (previous == null) seats.remove(id, hold);
+                    else seats.replace(id, hold, previous);
+                }
+                dropIfEmpty(hold.screeningId, seats);
+                throw new DataIntegrityViolationException("Seat is held by another customer");
+            }
+            acquired.add(seatId);
+        }
+        // drop whatever else the caller was holding on this screening
+        seats.entrySet().removeIf(e -> e.getValue() != hold && e.getValue().userId.equals(hold.userId));
+    }
+
+    public boolean isHeldBy(Long screeningId, Long userId, Collection<Long> seatIds) {
+        ConcurrentMap<Long, Hold> seats = screenings.get(screeningId);
+        if (seats == null) return seatIds.isEmpty();
+        long now = System.currentTimeMillis();
+        for (Long seatId : seatIds) {
+            Hold h = seats.get(seatId);
+            if (h == null || h.expired(now) || !h.userId.equals(userId)) return false;
+        }
+        return true;
+    }
+
+    /** Seats of the screening under a live hold by anyone. */
+    public Set<Long> heldSeats(Long screeningId) {
+        ConcurrentMap<Long, Hold> seats = screenings.get(screeningId);
+        if (seats == null) return Set.of();
+        long now = System.currentTimeMillis();
+        Set<Long> held = new HashSet<>();
+        seats.forEach((seatId, h) -> {
+            if (!h.expired(now)) held.add(seatId);
+        });
+        return held;
+    }
+
+    public void release(Long screeningId, Long userId) {
+        ConcurrentMap<Long, Hold> seats = screenings.get(screeningId);
+        if (seats != null) seats.values().removeIf(h -> h.userId.equals(userId));
+    }
+
+    @TransactionalEventListener
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        release(event.screeningId(), event.userId());
+    }
+
+    @PreDestroy
+    void stop() {
+        reaper.interrupt();
+    }
+
+    private void reapExpired() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Hold head = expiries.peek();
+                long now = System.currentTimeMillis();
+                if (head == null) {
+                    Thread.sleep(ttlMillis);
+                } else if (head.expired(now)) {
+                    expiries.poll();
+                    ConcurrentMap<Long, Hold> seats = screenings.get(head.screeningId);
+                    // a renewed hold is a different instance, so only seats still owned by this one are freed
+                    if (seats != null) {
+                        head.seatIds.forEach(id -> seats.remove(id, head));
+                        dropIfEmpty(head.screeningId, seats);
+                    }
+                } else {
+                    Thread.sleep(head.expiresAt - now);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void dropIfEmpty(Long screeningId, ConcurrentMap<Long, Hold> seats) {
+        screenings.computeIfPresent(screeningId, (id, current) -> current == seats && current.isEmpty() ? null : current);
+    }
+
+    private static final class Hold {
+        private final Long screeningId;
+        private final Long userId;
+        private final long expiresAt;
+        private final List<Long> seatIds;
+
+        Hold(Long screeningId, Long userId, long expiresAt, List<Long> seatIds) {
+            this.screeningId = screeningId;
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+            this.seatIds = seatIds;
+        }
+
+        boolean expired(long now) { return expiresAt <= now; }
+    }
+}
@@ -0,0 +1,231 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.repo.ScreeningRepository;
+import com.risinglion.domain.repo.SeatRepository;
+import com.risinglion.domain.repo.TicketRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory seat availability per screening, one bitset indexed by seat position in the theater layout.
+ * Screenings are loaded lazily on first access and kept current from committed bookings. Only loads
+ * made outside a transaction are cached: one inside a booking transaction reads that transaction's
+ * older snapshot, so it answers the caller and is dropped. Callers about to book {@link #warm} first.
+ */
+@Service
+public class SeatInventory {
+    private final ScreeningRepository screeningRepository;
+    private final SeatRepository seatRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate readTransaction;
+
+    private final ConcurrentMap<Long, TheaterLayout> layouts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Occupancy> screenings = new ConcurrentHashMap<>();
+
+    public SeatInventory(ScreeningRepository screeningRepository, SeatRepository seatRepository, TicketRepository ticketRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.screeningRepository = screeningRepository;
+        this.seatRepository = seatRepository;
+        this.ticketRepository = ticketRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+    }
+
+    /** Loads the screening now, so a booking transaction opened next finds it in memory. */
+    public void warm(Long screeningId) {
+        occupancy(screeningId);
+    }
+
+    public Optional<SeatMap> seatMap(Long screeningId) {
+        return occupancy(screeningId).map(o -> o.snapshot(screeningId));
+    }
+
+    /** Seat layout of a theater, or empty if the theater has no seats. */
+    public Optional<TheaterLayout> layout(Long theaterId) {
+        return Optional.ofNullable(layouts.computeIfAbsent(theaterId, this::loadLayout));
+    }
+
+    /** True if any of the seats is already sold for the screening. Seats outside the theater are ignored here. */
+    public boolean anyTaken(Long screeningId, Collection<Long> seatIds) {
+        Occupancy o = occupancy(screeningId).orElse(null);
+        if (o == null) return false;
+        for (Long seatId : seatIds) {
+            int p = o.layout.positionOf(seatId);
+            if (p >= 0 && o.isTaken(p)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the free block of {@code count} adjacent seats in one row closest to the centre of the hall.
+     * Rows are pruned with the per-row longest free run, so only rows that can fit the block are scanned.
+     * Empty if the screening does not exist; a block that is not {@link SeatBlock#found() found} if no row fits.
+     */
+    public Optional<SeatBlock> bestBlock(Long screeningId, int count, Set<Long> excludedSeatIds) {
+        if (count < 1) throw new IllegalArgumentException("count must be at least 1");
+        Occupancy o = occupancy(screeningId).orElse(null);
+        if (o == null) return Optional.empty();
+        TheaterLayout layout = o.layout;
+        double centerRow = (layout.rowCount() - 1) / 2.0;
+        int bestFrom = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int r = 0; r < layout.rowCount(); r++) {
+            double rowDistance = Math.abs(r - centerRow);
+            if (o.longestRun.get(r) < count || rowDistance >= bestScore) continue;
+            int start = layout.rowStart(r), end = layout.rowEnd(r);
+            double rowCenter = (start + end - 1) / 2.0;
+            int runStart = -1;
+            for (int p = start; p <= end; p++) {
+                boolean free = p < end && !o.isTaken(p) && !excludedSeatIds.contains(layout.seatId(p));
+                if (free && runStart >= 0 && layout.adjacentToPrevious(p)) continue;
+                if (runStart >= 0 && p - runStart >= count) {
+                    // best placement inside the run is the one whose middle is closest to the row's middle
+                    int from = (int) Math.round(rowCenter - (count - 1) / 2.0);
+                    from = Math.max(runStart, Math.min(from, p - count));
+                    double score = rowDistance + Math.abs(from + (count - 1) / 2.0 - rowCenter);
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestFrom = from;
+                    }
+                }
+                runStart = free ? p : -1;
+            }
+        }
+        return Optional.of(new SeatBlock(layout, bestFrom, count));
+    }
+
+    @TransactionalEventListener
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        // a screening that is not loaded yet is caught up by occupancy() once it is
+        screenings.computeIfPresent(event.screeningId(), (id, o) -> markSold(o, event.seatIds()));
+    }
+
+    public void evict(Long screeningId) {
+        screenings.remove(screeningId);
+    }
+
+    private Optional<Occupancy> occupancy(Long screeningId) {
+        Occupancy o = screenings.get(screeningId);
+        if (o != null) return Optional.of(o);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // read on the caller's connection: a transaction of our own would need a second pooled one
+            return Optional.ofNullable(load(screeningId));
+        }
+        // queried outside the map's lock; the first loader to publish wins
+        Occupancy loaded = readTransaction.execute(status -> load(screeningId));
+        if (loaded == null) return Optional.empty();
+        o = screenings.putIfAbsent(screeningId, loaded);
+        if (o != null) return Optional.of(o);
+        // bookings that committed after the load read its snapshot, but before it was published, found
+        // no entry to update; one more read sees them, and later ones reach the entry through the event
+        List<Long> sold = readTransaction.execute(status -> ticketRepository.findSeatIdsByScreeningId(screeningId));
+        if (sold != null) screenings.computeIfPresent(screeningId, (id, current) -> markSold(current, sold));
+        return Optional.ofNullable(screenings.get(screeningId));
+    }
+
+    private static Occupancy markSold(Occupancy o, Collection<Long> seatIds) {
+        boolean changed = false;
+        for (Long seatId : seatIds) {
+            int p = o.layout.positionOf(seatId);
+            changed |= p >= 0 && !o.isTaken(p);
+        }
+        if (!changed) return o;
+        long next = o.version.get() + 1;
+        for (Long seatId : seatIds) {
+            int p = o.layout.positionOf(seatId);
+            if (p >= 0 && !o.isTaken(p)) o.mark(p, next);
+        }
+        for (Long seatId : seatIds) {
+            int p = o.layout.positionOf(seatId);
+            if (p >= 0) o.refreshRow(o.layout.rowOf(p));
+        }
+        // published last, so a reader that sees the new version also sees its seats
+        o.version.set(next);
+        return o;
+    }
+
+    private Occupancy load(Long screeningId) {
+        Long theaterId = screeningRepository.findTheaterIdById(screeningId).orElse(null);
+        if (theaterId == null) return null;
+        TheaterLayout layout = layout(theaterId).orElseGet(() -> new TheaterLayout(theaterId, List.of()));
+        Occupancy o = new Occupancy(layout);
+        for (Long seatId : ticketRepository.findSeatIdsByScreeningId(screeningId)) {
+            int p = layout.positionOf(seatId);
+            if (p >= 0) o.mark(p, 0);
+        }
+        for (int r = 0; r < layout.rowCount(); r++) o.refreshRow(r);
+        return o;
+    }
+
+    private TheaterLayout loadLayout(Long theaterId) {
+        var seats = seatRepository.findByTheaterIdOrderByRowAscNumberAsc(theaterId);
+        // not cached when empty, so unknown theater ids cannot fill the map
+        return seats.isEmpty() ? null : new TheaterLayout(theaterId, seats);
+    }
+
+    /** Seats {@code from .. from + count - 1} of the layout; {@code from} is -1 when nothing fits. */
+    public record SeatBlock(TheaterLayout layout, int from, int count) {
+        public boolean found() { return from >= 0; }
+    }
+
+    private static final class Occupancy {
+        private final TheaterLayout layout;
+        private final AtomicLongArray words;
+        private final AtomicLongArray changedAt;
+        // longest run of adjacent free seats per row, kept current as seats are sold
+        private final AtomicIntegerArray longestRun;
+        // versions start at the load time so they keep increasing across evictions and restarts
+        private final long baseVersion = System.currentTimeMillis();
+        private final AtomicLong version = new AtomicLong(baseVersion);
+
+        Occupancy(TheaterLayout layout) {
+            this.layout = layout;
+            this.words = new AtomicLongArray((layout.size() + 63) >>> 6);
+            this.changedAt = new AtomicLongArray(layout.size());
+            this.longestRun = new AtomicIntegerArray(layout.rowCount());
+        }
+
+        boolean isTaken(int position) {
+            return (words.get(position >>> 6) & (1L << position)) != 0;
+        }
+
+        void mark(int position, long atVersion) {
+            long mask = 1L << position;
+            words.getAndUpdate(position >>> 6, w -> w | mask);
+            changedAt.set(position, atVersion);
+        }
+
+        void refreshRow(int row) {
+            int best = 0, run = 0;
+            for (int p = layout.rowStart(row); p < layout.rowEnd(row); p++) {
+                if (isTaken(p)) run = 0;
+                else run = layout.adjacentToPrevious(p) ? run + 1 : 1;
+                best = Math.max(best, run);
+            }
+            longestRun.set(row, best);
+        }
+
+        SeatMap snapshot(Long screeningId) {
+            // version is read first: the copied bits may be newer than it, never older
+            long v = version.get();
+            long[] taken = new long[words.length()];
+            for (int i = 0; i < taken.length; i++) taken[i] = words.get(i);
+            long[] changed = new long[changedAt.length()];
+            for (int i = 0; i < changed.length; i++) changed[i] = changedAt.get(i);
+            return new SeatMap(screeningId, layout, v, baseVersion, taken, changed);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.risinglion.domain.service;
+
+/**
+ * Point-in-time view of a screening's seats: the theater layout plus copies of the taken bits and of the
+ * version at which each seat last changed.
+ */
+public final class SeatMap {
+    private final Long screeningId;
+    private final TheaterLayout layout;
+    private final long version;
+    private final long baseVersion;
+    private final long[] taken;
+    private final long[] changedAt;
+
+    SeatMap(Long screeningId, TheaterLayout layout, long version, long baseVersion, long[] taken, long[] changedAt) {
+        this.screeningId = screeningId;
+        this.layout = layout;
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.taken = taken;
+        this.changedAt = changedAt;
+    }
+
+    public Long screeningId() { return screeningId; }
+
+    public TheaterLayout layout() { return layout; }
+
+    public int size() { return layout.size(); }
+
+    /** Monotonically increasing per screening; bumped whenever tickets are written. */
+    public long version() { return version; }
+
+    public boolean isTaken(int position) {
+        return (taken[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * Whether changes since the given version can be answered from this map. Versions from before the
+     * screening was (re)loaded into memory cannot, and the caller needs the full map instead.
+     */
+    public boolean canDiffFrom(long sinceVersion) {
+        return sinceVersion >= baseVersion && sinceVersion <= version;
+    }
+
+    /** Taken bits packed by seat position, bit {@code i % 8} of byte {@code i / 8}. */
+    public byte[] takenBits() {
+        byte[] out = new byte[(size() + 7) >>> 3];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) (taken[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return out;
+    }
+
+    public boolean changedSince(int position, long sinceVersion) {
+        return changedAt[position] > sinceVersion;
+    }
+}
@@ -0,0 +1,9 @@
+package com.risinglion.domain.service;
+
+import java.util.List;
+
+/**
+ * Published by {@link BookingService} once tickets for the given seats have been written.
+ * Listeners that keep in-memory state should react after commit.
+ */
+public record SeatsBookedEvent(Long screeningId, Long movieId, Long userId, List<Long> seatIds) {}
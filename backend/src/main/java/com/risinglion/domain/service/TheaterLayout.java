@@ -0,0 +1,75 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Seat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable seat layout of a theater. Seats are kept in (row, number) order and each seat is
+ * addressed by its position in that order, which is what the per-screening bitsets index.
+ */
+public final class TheaterLayout {
+    private final Long theaterId;
+    private final long[] seatIds;
+    private final String[] rows;
+    private final int[] numbers;
+    private final Map<Long, Integer> positions;
+    private final int[] rowOf;
+    private final int[] rowStarts;
+
+    TheaterLayout(Long theaterId, List<Seat> orderedSeats) {
+        int size = orderedSeats.size();
+        this.theaterId = theaterId;
+        this.seatIds = new long[size];
+        this.rows = new String[size];
+        this.numbers = new int[size];
+        this.positions = new HashMap<>(size * 2);
+        this.rowOf = new int[size];
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Seat s = orderedSeats.get(i);
+            seatIds[i] = s.getId();
+            rows[i] = s.getRow();
+            numbers[i] = s.getNumber();
+            positions.put(s.getId(), i);
+            if (i == 0 || !rows[i].equals(rows[i - 1])) starts.add(i);
+            rowOf[i] = starts.size() - 1;
+        }
+        starts.add(size);
+        this.rowStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public Long theaterId() { return theaterId; }
+
+    public int size() { return seatIds.length; }
+
+    public long seatId(int position) { return seatIds[position]; }
+
+    public String row(int position) { return rows[position]; }
+
+    public int number(int position) { return numbers[position]; }
+
+    public int rowCount() { return rowStarts.length - 1; }
+
+    /** Index of the row the position is in, rows being numbered from 0 in layout order. */
+    public int rowOf(int position) { return rowOf[position]; }
+
+    public int rowStart(int row) { return rowStarts[row]; }
+
+    /** Exclusive end position of the row. */
+    public int rowEnd(int row) { return rowStarts[row + 1]; }
+
+    /** Whether the seat at the position sits right next to the one before it in the same row. */
+    public boolean adjacentToPrevious(int position) {
+        return position > 0 && rowOf[position] == rowOf[position - 1] && numbers[position] == numbers[position - 1] + 1;
+    }
+
+    /** Position of the seat in this layout, or -1 if the seat does not belong to this theater. */
+    public int positionOf(Long seatId) {
+        Integer p = positions.get(seatId);
+        return p != null ? p : -1;
+    }
+}
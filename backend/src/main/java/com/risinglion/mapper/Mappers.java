@@ -1,9 +1,11 @@
 package com.risinglion.mapper;
 
 import com.risinglion.domain.entity.*;
+import com.risinglion.domain.service.SeatMap;
 import com.risinglion.web.dto.CommonDtos.BookingDto;
 import com.risinglion.web.dto.CommonDtos.CategoryDto;
 import com.risinglion.web.dto.CommonDtos.MovieDto;
+import com.risinglion.web.dto.CommonDtos.RatingDto;
 import com.risinglion.web.dto.CommonDtos.ReviewDto;
 import com.risinglion.web.dto.CommonDtos.ScreeningDto;
 import com.risinglion.web.dto.CommonDtos.SeatDto;
@@ -12,6 +14,7 @@ import com.risinglion.web.dto.CommonDtos.TicketDto;
 import com.risinglion.web.dto.CommonDtos.UserAdminDto;
 import org.mapstruct.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Mapper(componentModel = "spring", nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
@@ -19,7 +22,12 @@ public interface Mappers {
     CategoryDto toCategoryDto(Category c);
     List<CategoryDto> toCategoryDtos(List<Category> c);
 
-    MovieDto toMovieDto(Movie m);
+    @Mapping(target = "rating", source = "rating")
+    MovieDto toMovieDto(Movie m, RatingDto rating);
+
+    default MovieDto withRating(MovieDto m, RatingDto rating) {
+        return new MovieDto(m.id(), m.title(), m.duration(), m.description(), m.releaseDate(), m.imageURL(), m.category(), rating);
+    }
 
     TheaterDto toTheaterDto(Theater t);
 
@@ -27,6 +35,15 @@ public interface Mappers {
     SeatDto toSeatDto(Seat s);
     List<SeatDto> toSeatDtos(List<Seat> seats);
 
+    default List<SeatDto> toSeatDtos(SeatMap map) {
+        var layout = map.layout();
+        List<SeatDto> seatDtos = new ArrayList<>(map.size());
+        for (int i = 0; i < map.size(); i++) {
+            seatDtos.add(new SeatDto(layout.seatId(i), layout.row(i), layout.number(i), map.isTaken(i)));
+        }
+        return seatDtos;
+    }
+
     @Mapping(target = "movieId", source = "movie.id")
     @Mapping(target = "theaterId", source = "theater.id")
     @Mapping(target = "datetime", source = "datetime", qualifiedByName = "localDateTimeToUtcZ")
@@ -0,0 +1,11 @@
+package com.risinglion.security;
+
+import java.security.Principal;
+
+/** The authenticated caller as read from the access token's claims. */
+public record AuthUser(Long id, String email, boolean admin) implements Principal {
+    @Override
+    public String getName() {
+        return email;
+    }
+}
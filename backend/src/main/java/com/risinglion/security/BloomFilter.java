@@ -0,0 +1,42 @@
+package com.risinglion.security;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over SHA-256 digests. The bit positions come from the digest itself
+ * (double hashing of its first two longs), so no further hashing is done per lookup.
+ */
+final class BloomFilter {
+    private final AtomicLongArray words;
+    private final int bits;
+    private final int hashes;
+
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedEntries * ln2));
+        this.words = new AtomicLongArray((bits + 63) >>> 6);
+    }
+
+    void add(byte[] digest) {
+        ByteBuffer b = ByteBuffer.wrap(digest);
+        long h1 = b.getLong(0), h2 = b.getLong(8);
+        for (int i = 0; i < hashes; i++) {
+            int p = (int) Math.floorMod(h1 + i * h2, (long) bits);
+            long mask = 1L << p;
+            words.getAndUpdate(p >>> 6, w -> w | mask);
+        }
+    }
+
+    boolean mightContain(byte[] digest) {
+        ByteBuffer b = ByteBuffer.wrap(digest);
+        long h1 = b.getLong(0), h2 = b.getLong(8);
+        for (int i = 0; i < hashes; i++) {
+            int p = (int) Math.floorMod(h1 + i * h2, (long) bits);
+            if ((words.get(p >>> 6) & (1L << p)) == 0) return false;
+        }
+        return true;
+    }
+}
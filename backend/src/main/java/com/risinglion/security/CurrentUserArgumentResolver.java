@@ -0,0 +1,46 @@
+package com.risinglion.security;
+
+import com.risinglion.domain.repo.UserRepository;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UserRepository userRepository;
+
+    public CurrentUserArgumentResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class) && (type == Long.class || type == AuthUser.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new AuthenticationCredentialsNotFoundException("Not authenticated");
+        }
+        AuthUser user = auth.getPrincipal() instanceof AuthUser u ? u : lookUp(auth);
+        return parameter.getParameterType() == Long.class ? user.id() : user;
+    }
+
+    // only HTTP Basic callers land here; bearer tokens already carry the user
+    private AuthUser lookUp(Authentication auth) {
+        var user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new AuthenticationCredentialsNotFoundException("User not found"));
+        return new AuthUser(user.getId(), user.getEmail(), user.isAdmin());
+    }
+}
@@ -1,73 +1,166 @@
 package com.risinglion.security;
 
+import com.risinglion.domain.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TYPE_REFRESH = "refresh";
+
     @Value("${app.jwt.secret:}")
     private String configuredSecret;
 
     @Value("${app.jwt.expirationMinutes}")
     private long expirationMinutes;
 
+    @Value("${app.jwt.cacheSize:10000}")
+    private int cacheSize;
+
     private volatile Key cachedSigningKey;
+    private volatile JwtParser cachedParser;
+
+    // verified claims by token digest, least recently used first
+    private final Map<String, VerifiedToken> verified = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /**
+     * Verifies the token's signature and expiry once and returns its claims. Tokens seen before are
+     * answered from a small LRU cache until they expire. Throws a {@code JwtException} for invalid tokens.
+     */
+    public Claims verify(String token) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        synchronized (verified) {
+            VerifiedToken hit = verified.get(digest);
+            if (hit != null) {
+                if (hit.expiresAt > now) return hit.claims;
+                verified.remove(digest);
+            }
+        }
+        Claims claims = extractAllClaims(token);
+        Date exp = claims.getExpiration();
+        if (exp != null) {
+            synchronized (verified) {
+                verified.put(digest, new VerifiedToken(claims, exp.getTime()));
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Issues an access token that carries everything the request filter needs (user id, roles and
+     * token version), so authenticating a request never has to load the user.
+     */
+    public String generateToken(User user) {
+        return generateToken(new AuthUser(user.getId(), user.getEmail(), user.isAdmin()), user.getTokenVersion());
+    }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public String generateToken(AuthUser user, int tokenVersion) {
+        return generateToken(user.email(), userClaims(user, tokenVersion), accessExpiry());
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /** Refresh tokens carry the same user claims plus a type marker and a unique id, so no two share a hash. */
+    public String generateRefreshToken(AuthUser user, int tokenVersion, Date expiresAt) {
+        Map<String, Object> claims = userClaims(user, tokenVersion);
+        claims.put(CLAIM_TYPE, TYPE_REFRESH);
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        return generateToken(user.email(), claims, expiresAt);
     }
 
-    public String generateToken(UserDetails userDetails, Map<String, Object> extraClaims) {
-        long expMillis = System.currentTimeMillis() + expirationMinutes * 60 * 1000;
+    public boolean isRefreshToken(Claims claims) {
+        return TYPE_REFRESH.equals(claims.get(CLAIM_TYPE));
+    }
+
+    /** The caller named by the token, or null for tokens issued without user claims. */
+    public AuthUser toAuthUser(Claims claims) {
+        if (!(claims.get(CLAIM_USER_ID) instanceof Number id) || !(claims.get(CLAIM_TOKEN_VERSION) instanceof Number)) return null;
+        List<?> roles = claims.get(CLAIM_ROLES) instanceof List<?> r ? r : List.of();
+        return new AuthUser(id.longValue(), claims.getSubject(), roles.contains("ADMIN"));
+    }
+
+    public int tokenVersion(Claims claims) {
+        return ((Number) claims.get(CLAIM_TOKEN_VERSION)).intValue();
+    }
+
+    private Map<String, Object> userClaims(AuthUser user, int tokenVersion) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.id());
+        claims.put(CLAIM_ROLES, user.admin() ? List.of("ADMIN", "USER") : List.of("USER"));
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        claims.put("isAdmin", user.admin());
+        return claims;
+    }
+
+    private Date accessExpiry() {
+        return new Date(System.currentTimeMillis() + expirationMinutes * 60 * 1000);
+    }
+
+    private String generateToken(String subject, Map<String, Object> extraClaims, Date expiresAt) {
         return Jwts.builder()
                 .setClaims(extraClaims != null ? extraClaims : new HashMap<>())
-                .setSubject(userDetails.getUsername())
+                .setSubject(subject)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(expMillis))
+                .setExpiration(expiresAt)
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    private Claims extractAllClaims(String token) {
+        return getParser().parseClaimsJws(token).getBody();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private JwtParser getParser() {
+        if (cachedParser != null) {
+            return cachedParser;
+        }
+        // the built parser is immutable and thread-safe, so one instance serves every request
+        cachedParser = Jwts.parserBuilder().setSigningKey(getSignInKey()).build();
+        return cachedParser;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static String digest(String token) {
+        return Base64.getEncoder().encodeToString(sha256(token));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    static byte[] sha256(String token) {
+        return SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
     }
 
     private Key getSignInKey() {
@@ -105,6 +198,8 @@ public class JwtService {
         return decoded;
     }
 
+    private record VerifiedToken(Claims claims, long expiresAt) {}
+
     private String generateRuntimeSecret() {
         byte[] randomBytes = new byte[32];
         new SecureRandom().nextBytes(randomBytes);
@@ -0,0 +1,136 @@
+package com.risinglion.security;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client request quotas, applied after {@link JwtAuthFilter} so signed-in callers are counted by user id
+ * and anonymous ones by remote address. Each client has one lock-free bucket per route (GCRA: a single
+ * timestamp updated with compare-and-set), and buckets left idle are swept by a background thread.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final long idleNanos;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Rule defaultRule;
+    private final Thread sweeper;
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.enabled = properties.enabled();
+        this.idleNanos = TimeUnit.SECONDS.toNanos(properties.idleSeconds());
+        PathPatternParser parser = new PathPatternParser();
+        for (RateLimitProperties.Route r : properties.routes()) {
+            rules.add(new Rule(r.method(), parser.parse(r.pattern()), r.quota()));
+        }
+        this.defaultRule = new Rule(null, null, properties.defaultQuota());
+        this.sweeper = new Thread(this::sweepIdle, "rate-limit-sweeper");
+        this.sweeper.setDaemon(true);
+        if (enabled) this.sweeper.start();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = ruleFor(request).acquire(clientKey(request), System.nanoTime());
+        if (waitNanos > 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            response.setContentType("application/problem+json");
+            response.getWriter().write("{\"status\":429,\"title\":\"Too many requests\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.interrupt();
+    }
+
+    private Rule ruleFor(HttpServletRequest request) {
+        if (rules.isEmpty()) return defaultRule;
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        for (Rule rule : rules) {
+            if ((rule.method == null || rule.method.equalsIgnoreCase(method)) && rule.pattern.matches(path)) return rule;
+        }
+        return defaultRule;
+    }
+
+    private static Object clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthUser user) return user.id();
+        return request.getRemoteAddr();
+    }
+
+    private void sweepIdle() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis(idleNanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // a bucket whose next free slot lies idleNanos in the past is full again, so dropping it changes nothing
+            long cutoff = System.nanoTime() - idleNanos;
+            for (Rule rule : rules) rule.buckets.values().removeIf(b -> b.get() - cutoff < 0);
+            defaultRule.buckets.values().removeIf(b -> b.get() - cutoff < 0);
+        }
+    }
+
+    private static final class Rule {
+        private final String method;
+        private final PathPattern pattern;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final ConcurrentMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        Rule(String method, PathPattern pattern, RateLimitProperties.Quota quota) {
+            this.method = method;
+            this.pattern = pattern;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / quota.perSecond());
+            this.toleranceNanos = intervalNanos * Math.max(1, quota.burst());
+        }
+
+        /** Takes one request from the client's bucket; returns 0 if allowed, else how long to wait. */
+        long acquire(Object client, long now) {
+            // the bucket holds the theoretical arrival time of the client's next request
+            AtomicLong tat = buckets.get(client);
+            if (tat == null) tat = buckets.computeIfAbsent(client, k -> new AtomicLong(now));
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current - now, 0) + now + intervalNanos;
+                long wait = next - now - toleranceNanos;
+                if (wait > 0) return wait;
+                if (tat.compareAndSet(current, next)) return 0;
+            }
+        }
+    }
+}
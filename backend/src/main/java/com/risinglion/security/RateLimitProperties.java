@@ -0,0 +1,27 @@
+package com.risinglion.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Request quotas per route. The first route whose method and path pattern match a request applies;
+ * requests matching none use {@code defaultQuota}.
+ */
+@ConfigurationProperties("app.rate-limit")
+public record RateLimitProperties(boolean enabled, long idleSeconds, Quota defaultQuota, List<Route> routes) {
+
+    public RateLimitProperties {
+        if (idleSeconds <= 0) idleSeconds = 600;
+        if (defaultQuota == null) defaultQuota = new Quota(20, 50);
+        if (routes == null) routes = List.of();
+    }
+
+    /** Sustained rate and how many requests may arrive at once on top of it. */
+    public record Quota(double perSecond, int burst) {}
+
+    /** {@code method} may be null to match every method; {@code pattern} uses Spring path pattern syntax. */
+    public record Route(String method, String pattern, double perSecond, int burst) {
+        Quota quota() { return new Quota(perSecond, burst); }
+    }
+}
@@ -0,0 +1,228 @@
+package com.risinglion.security;
+
+import com.risinglion.domain.entity.RefreshToken;
+import com.risinglion.domain.entity.User;
+import com.risinglion.domain.repo.RefreshTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and rotates refresh tokens. A refresh token is a signed JWT, so validating it and minting the next
+ * access token need neither a password check nor a user query. Tokens are stored only as SHA-256 hashes.
+ * Revoked tokens are screened by a Bloom filter and confirmed in an exact set. Both are rebuilt from the
+ * unexpired revocations at startup and every {@code app.security.refresh.rebuildHours}, which is also when
+ * expired rows are deleted; the conditional revoke of the presented row keeps rotation single-use across instances.
+ */
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final TokenVersionCache tokenVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+    private final int expectedRevocations;
+    private final long rebuildMillis;
+    private final Thread rebuilder;
+
+    private volatile Revocations revocations;
+    // guarded by this; revocations made while a rebuild reads the table, carried over into the new set
+    private List<Revoked> pending;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, JwtService jwtService, TokenVersionCache tokenVersions,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.jwt.refreshExpirationDays:14}") long refreshExpirationDays,
+                               @Value("${app.security.refresh.expectedRevocations:100000}") int expectedRevocations,
+                               @Value("${app.security.refresh.rebuildHours:6}") long rebuildHours) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.tokenVersions = tokenVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlMillis = refreshExpirationDays * 24 * 60 * 60 * 1000;
+        this.expectedRevocations = expectedRevocations;
+        this.rebuildMillis = TimeUnit.HOURS.toMillis(Math.max(rebuildHours, 1));
+        this.revocations = new Revocations(expectedRevocations);
+        this.rebuilder = new Thread(this::rebuildPeriodically, "refresh-token-rebuilder");
+        this.rebuilder.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        rebuild();
+        rebuilder.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilder.interrupt();
+    }
+
+    /**
+     * Deletes expired tokens and swaps in a filter and set holding only the unexpired revocations, so
+     * neither fills up with tokens that would fail their expiry check anyway.
+     */
+    void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        List<Revoked> loaded = null;
+        try {
+            loaded = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                refreshTokenRepository.deleteExpired(now);
+                return refreshTokenRepository.findByRevokedTrueAndExpiresAtAfter(now).stream()
+                        .map(t -> new Revoked(HexFormat.of().parseHex(t.getTokenHash()), t.getTokenHash(),
+                                t.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()))
+                        .toList();
+            });
+        } finally {
+            synchronized (this) {
+                if (loaded != null) {
+                    // sized for twice the current count, so the false positive rate holds until the next rebuild
+                    Revocations next = new Revocations(Math.max(expectedRevocations, 2 * (loaded.size() + pending.size())));
+                    loaded.forEach(next::add);
+                    pending.forEach(next::add);
+                    revocations = next;
+                }
+                pending = null;
+            }
+        }
+    }
+
+    /** Starts a session for a user who just proved their password. */
+    @Transactional
+    public Session issue(User user) {
+        AuthUser authUser = new AuthUser(user.getId(), user.getEmail(), user.isAdmin());
+        return new Session(jwtService.generateToken(user), newRefreshToken(authUser, user.getTokenVersion()), authUser);
+    }
+
+    /**
+     * Trades a refresh token for a new access and refresh token. The presented token is revoked; empty if it
+     * is invalid, expired, already used, or the user's tokens were revoked since it was issued.
+     */
+    @Transactional
+    public Optional<Session> refresh(String refreshToken) {
+        Claims claims = verify(refreshToken);
+        if (claims == null) return Optional.empty();
+        AuthUser user = jwtService.toAuthUser(claims);
+        int tokenVersion = jwtService.tokenVersion(claims);
+        if (user == null || !tokenVersions.isCurrent(user.id(), tokenVersion)) return Optional.empty();
+        if (!revoke(refreshToken, claims)) return Optional.empty();
+        return Optional.of(new Session(jwtService.generateToken(user, tokenVersion), newRefreshToken(user, tokenVersion), user));
+    }
+
+    @Transactional
+    public void logout(String refreshToken) {
+        Claims claims = verify(refreshToken);
+        if (claims != null) revoke(refreshToken, claims);
+    }
+
+    /** Claims of a well-formed refresh token that is not known to be revoked, else null. */
+    private Claims verify(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+        if (!jwtService.isRefreshToken(claims)) return null;
+        byte[] digest = JwtService.sha256(refreshToken);
+        // the filter answers "definitely not revoked" for almost every live token without touching the set
+        Revocations r = revocations;
+        if (r.filter.mightContain(digest) && r.hashes.containsKey(HexFormat.of().formatHex(digest))) return null;
+        return claims;
+    }
+
+    private boolean revoke(String refreshToken, Claims claims) {
+        byte[] digest = JwtService.sha256(refreshToken);
+        String hash = HexFormat.of().formatHex(digest);
+        int updated = refreshTokenRepository.revoke(hash);
+        long expiresAt = claims.getExpiration().getTime();
+        // until the row commits the token is still valid, and a rolled back revoke must not shadow it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markRevoked(digest, hash, expiresAt);
+                }
+            });
+        } else {
+            markRevoked(digest, hash, expiresAt);
+        }
+        return updated == 1;
+    }
+
+    private String newRefreshToken(AuthUser user, int tokenVersion) {
+        Instant expiresAt = Instant.now().plusMillis(ttlMillis);
+        String token = jwtService.generateRefreshToken(user, tokenVersion, Date.from(expiresAt));
+        refreshTokenRepository.save(RefreshToken.builder()
+                .userId(user.id())
+                .tokenHash(HexFormat.of().formatHex(JwtService.sha256(token)))
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .createdAt(LocalDateTime.now())
+                .build());
+        return token;
+    }
+
+    private synchronized void markRevoked(byte[] digest, String hash, long expiresAt) {
+        Revoked r = new Revoked(digest, hash, expiresAt);
+        revocations.add(r);
+        if (pending != null) pending.add(r);
+    }
+
+    private void rebuildPeriodically() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(rebuildMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                // database unavailable: keep answering from the current set and try again next time
+            }
+        }
+    }
+
+    public record Session(String accessToken, String refreshToken, AuthUser user) {}
+
+    private record Revoked(byte[] digest, String hash, long expiresAt) {}
+
+    private static final class Revocations {
+        private final BloomFilter filter;
+        // hash of each revoked, unexpired token -> its expiry in epoch millis
+        private final ConcurrentMap<String, Long> hashes = new ConcurrentHashMap<>();
+
+        Revocations(int expectedEntries) {
+            this.filter = new BloomFilter(expectedEntries, 0.01);
+        }
+
+        void add(Revoked r) {
+            filter.add(r.digest);
+            hashes.put(r.hash, r.expiresAt);
+        }
+    }
+}
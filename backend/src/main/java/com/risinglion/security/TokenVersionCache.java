@@ -0,0 +1,77 @@
+package com.risinglion.security;
+
+import com.risinglion.domain.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Current token version per user, so a token can be checked against revocations and role changes
+ * without a user query on every request. Entries are reloaded after a short TTL, which also bounds
+ * how long another instance may keep accepting a revoked token.
+ */
+@Component
+public class TokenVersionCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final Map<Long, Entry> versions;
+    // guarded by versions; stamps each eviction, so a load that started before one is not cached after it
+    private long evictions;
+
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${app.security.tokenVersions.ttlSeconds:30}") long ttlSeconds,
+                             @Value("${app.security.tokenVersions.maxEntries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.versions = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > TokenVersionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** True if the user still exists and {@code tokenVersion} is their current one. */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        long now = System.currentTimeMillis();
+        Entry e;
+        long seen;
+        synchronized (versions) {
+            e = versions.get(userId);
+            seen = generation(e);
+        }
+        if (e == null || e.loadedAt + ttlMillis <= now) {
+            // a deleted user is cached as version -1 so every token of theirs fails
+            e = new Entry(userRepository.findTokenVersionById(userId).orElse(-1), now, seen);
+            synchronized (versions) {
+                // evicted while loading: the value read may predate the bump, so it answers this call only
+                if (generation(versions.get(userId)) == seen) versions.put(userId, e);
+            }
+        }
+        return e.version == tokenVersion;
+    }
+
+    /**
+     * Forgets the cached version, e.g. right after it was bumped. A load already in flight for the user
+     * still answers its own call but is not cached.
+     */
+    public void evict(Long userId) {
+        synchronized (versions) {
+            // an expired placeholder rather than a removal, so the user's generation moves on with it
+            versions.put(userId, new Entry(-1, Long.MIN_VALUE / 2, ++evictions));
+        }
+    }
+
+    // an absent user takes the latest eviction, which also covers a placeholder pushed out by the LRU bound
+    private long generation(Entry e) {
+        return e != null ? e.generation : evictions;
+    }
+
+    private record Entry(int version, long loadedAt, long generation) {}
+}
@@ -2,12 +2,20 @@ package com.risinglion.web.controller;
 
 import com.risinglion.domain.entity.User;
 import com.risinglion.domain.repo.UserRepository;
-import com.risinglion.mapper.Mappers;
+import com.risinglion.security.TokenVersionCache;
+import com.risinglion.web.dto.CommonDtos.CacheRegionStatsDto;
+import com.risinglion.web.dto.CommonDtos.CacheStatsDto;
 import com.risinglion.web.dto.CommonDtos.UserAdminDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -15,24 +23,55 @@ import java.util.List;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
     private final UserRepository userRepository;
-    private final Mappers mappers;
+    private final TokenVersionCache tokenVersions;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public AdminController(UserRepository userRepository, Mappers mappers) { this.userRepository = userRepository; this.mappers = mappers; }
+    public AdminController(UserRepository userRepository, TokenVersionCache tokenVersions, EntityManagerFactory entityManagerFactory) {
+        this.userRepository = userRepository;
+        this.tokenVersions = tokenVersions;
+        this.entityManagerFactory = entityManagerFactory;
+    }
 
     @GetMapping("/users")
-    public List<UserAdminDto> users() { return userRepository.findAll().stream().map(mappers::toUserAdminDto).toList(); }
+    public List<UserAdminDto> users() { return userRepository.findAllAdminDtos(); }
 
     @PatchMapping("/users/{id}/role/{role}")
     public ResponseEntity<Void> changeRole(@PathVariable Long id, @PathVariable String role) {
         User u = userRepository.findById(id).orElseThrow();
         u.setAdmin("ADMIN".equalsIgnoreCase(role));
+        // roles travel inside the token, so tokens issued with the old role must stop working
+        u.setTokenVersion(u.getTokenVersion() + 1);
         userRepository.save(u);
+        tokenVersions.evict(id);
         return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         userRepository.deleteById(id);
+        tokenVersions.evict(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/cache/stats")
+    public CacheStatsDto cacheStats() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatsDto> regions = new ArrayList<>();
+        String[] names = stats.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics r = stats.getCacheRegionStatistics(name);
+            if (r != null) regions.add(new CacheRegionStatsDto(name, r.getHitCount(), r.getMissCount(), r.getPutCount()));
+        }
+        return new CacheStatsDto(stats.getSecondLevelCacheHitCount(), stats.getSecondLevelCacheMissCount(), stats.getSecondLevelCachePutCount(),
+                stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount(), stats.getPrepareStatementCount(), regions);
+    }
+
+    /** Drops every cached entity and query result, for changes made to the database outside the API. */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
         return ResponseEntity.noContent().build();
     }
 }
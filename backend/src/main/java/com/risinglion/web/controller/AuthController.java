@@ -2,19 +2,16 @@ package com.risinglion.web.controller;
 
 import com.risinglion.domain.entity.User;
 import com.risinglion.domain.repo.UserRepository;
-import com.risinglion.security.JwtService;
+import com.risinglion.security.RefreshTokenService;
 import com.risinglion.web.dto.AuthDtos.*;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -22,14 +19,14 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
-    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokens;
 
     public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder,
-                          AuthenticationManager authenticationManager, JwtService jwtService) {
+                          AuthenticationManager authenticationManager, RefreshTokenService refreshTokens) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
-        this.jwtService = jwtService;
+        this.refreshTokens = refreshTokens;
     }
 
     @PostMapping("/signup")
@@ -44,16 +41,28 @@ public class AuthController {
                 .isAdmin(false)
                 .build();
         userRepository.save(u);
-        String token = jwtService.generateToken(new org.springframework.security.core.userdetails.User(u.getEmail(), u.getPassword(), java.util.List.of()), Map.of("isAdmin", false));
-        return ResponseEntity.ok(new AuthResponse(token, new UserSummary(u.getId(), u.getEmail(), false)));
+        return ResponseEntity.ok(toResponse(refreshTokens.issue(u)));
     }
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest req) {
-        Authentication auth = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(req.email(), req.password()));
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(req.email(), req.password()));
         User user = userRepository.findByEmail(req.email()).orElseThrow();
-        String token = jwtService.generateToken((UserDetails) auth.getPrincipal(), Map.of("isAdmin", user.isAdmin()));
-        return ResponseEntity.ok(new AuthResponse(token, new UserSummary(user.getId(), user.getEmail(), user.isAdmin())));
+        return ResponseEntity.ok(toResponse(refreshTokens.issue(user)));
+    }
+
+    /** Rotates the refresh token and returns a fresh pair; no password check, no user query. */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest req) {
+        return refreshTokens.refresh(req.refreshToken())
+                .map(session -> ResponseEntity.ok(toResponse(session)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshRequest req) {
+        refreshTokens.logout(req.refreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/reset-password")
@@ -61,4 +70,9 @@ public class AuthController {
         // placeholder: no-op
         return ResponseEntity.noContent().build();
     }
+
+    private static AuthResponse toResponse(RefreshTokenService.Session session) {
+        var u = session.user();
+        return new AuthResponse(session.accessToken(), session.refreshToken(), new UserSummary(u.id(), u.email(), u.admin()));
+    }
 }
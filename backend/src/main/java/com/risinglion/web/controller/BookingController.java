@@ -1,20 +1,32 @@
 package com.risinglion.web.controller;
 
 import com.risinglion.domain.entity.Booking;
-import com.risinglion.domain.entity.User;
 import com.risinglion.domain.repo.*;
+import com.risinglion.domain.service.BookingPipeline;
 import com.risinglion.domain.service.BookingService;
+import com.risinglion.domain.service.IdempotencyKeyMismatchException;
+import com.risinglion.domain.service.IdempotencyStore;
+import com.risinglion.domain.service.SeatHoldService;
+import com.risinglion.domain.service.SeatInventory;
+import com.risinglion.domain.service.SeatMap;
 import com.risinglion.mapper.Mappers;
+import com.risinglion.security.CurrentUser;
+import com.risinglion.web.sse.SeatMapBroadcaster;
 import com.risinglion.web.dto.CommonDtos.*;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,51 +34,195 @@ import java.util.stream.Collectors;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingPipeline bookingPipeline;
     private final BookingRepository bookingRepository;
-    private final TicketRepository ticketRepository;
-    private final ScreeningRepository screeningRepository;
     private final UserRepository userRepository;
-    private final SeatRepository seatRepository;
+    private final SeatInventory seatInventory;
+    private final SeatHoldService seatHolds;
+    private final SeatMapBroadcaster seatMapBroadcaster;
+    private final IdempotencyStore idempotencyStore;
     private final Mappers mappers;
+    private final int maxBatchSize;
 
-    public BookingController(BookingService bookingService, BookingRepository bookingRepository, TicketRepository ticketRepository, ScreeningRepository screeningRepository, UserRepository userRepository, SeatRepository seatRepository, Mappers mappers) {
+    public BookingController(BookingService bookingService, BookingPipeline bookingPipeline, BookingRepository bookingRepository, UserRepository userRepository, SeatInventory seatInventory, SeatHoldService seatHolds, SeatMapBroadcaster seatMapBroadcaster, IdempotencyStore idempotencyStore, Mappers mappers,
+                             @Value("${app.booking.maxBatchSize:10}") int maxBatchSize) {
         this.bookingService = bookingService;
+        this.bookingPipeline = bookingPipeline;
         this.bookingRepository = bookingRepository;
-        this.ticketRepository = ticketRepository;
-        this.screeningRepository = screeningRepository;
         this.userRepository = userRepository;
-        this.seatRepository = seatRepository;
+        this.seatInventory = seatInventory;
+        this.seatHolds = seatHolds;
+        this.seatMapBroadcaster = seatMapBroadcaster;
+        this.idempotencyStore = idempotencyStore;
         this.mappers = mappers;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @GetMapping("/screenings/{id}/seats")
-    public ResponseEntity<List<SeatDto>> seatMap(@PathVariable Long id) {
-        var screening = screeningRepository.findById(id).orElse(null);
-        if (screening == null) return ResponseEntity.notFound().build();
-        var theaterId = screening.getTheater().getId();
-        Set<Long> taken = ticketRepository.findByScreeningId(id).stream().map(t -> t.getSeat().getId()).collect(Collectors.toSet());
-        List<SeatDto> seatDtos = seatRepository.findByTheaterIdOrderByRowAscNumberAsc(theaterId)
-                .stream()
-                .map(s -> new SeatDto(s.getId(), s.getRow(), s.getNumber(), taken.contains(s.getId())))
-                .toList();
-        return ResponseEntity.ok(seatDtos);
+    public ResponseEntity<List<SeatDto>> seatMap(@PathVariable Long id, WebRequest request) {
+        SeatMap map = seatInventory.seatMap(id).orElse(null);
+        if (map == null) return ResponseEntity.notFound().build();
+        String etag = etag(map, "");
+        if (request.checkNotModified(etag)) return notModified(etag);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(mappers.toSeatDtos(map));
+    }
+
+    /** Occupancy only, as packed bits in theater layout order; the layout comes from /theaters/{id}/layout. */
+    @GetMapping(path = "/screenings/{id}/seats", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> seatMapBits(@PathVariable Long id, WebRequest request) {
+        SeatMap map = seatInventory.seatMap(id).orElse(null);
+        if (map == null) return ResponseEntity.notFound().build();
+        String etag = etag(map, "-bits");
+        if (request.checkNotModified(etag)) return notModified(etag);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT)
+                .header("X-Theater-Id", String.valueOf(map.layout().theaterId()))
+                .header("X-Seat-Count", String.valueOf(map.size()))
+                .body(map.takenBits());
+    }
+
+    @GetMapping(path = "/screenings/{id}/seats", params = {"format=bitset", "!sinceVersion"})
+    public ResponseEntity<SeatBitsetDto> seatMapBitset(@PathVariable Long id, WebRequest request) {
+        SeatMap map = seatInventory.seatMap(id).orElse(null);
+        if (map == null) return ResponseEntity.notFound().build();
+        String etag = etag(map, "-bitset");
+        if (request.checkNotModified(etag)) return notModified(etag);
+        String bits = Base64.getEncoder().encodeToString(map.takenBits());
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(new SeatBitsetDto(id, map.layout().theaterId(), map.version(), map.size(), bits));
+    }
+
+    @GetMapping(path = "/screenings/{id}/seats", params = {"sinceVersion", "!format"})
+    public ResponseEntity<SeatMapDeltaDto> seatMapSince(@PathVariable Long id, @RequestParam long sinceVersion) {
+        SeatMap map = seatInventory.seatMap(id).orElse(null);
+        if (map == null) return ResponseEntity.notFound().build();
+        String etag = etag(map, "-since" + sinceVersion);
+        if (!map.canDiffFrom(sinceVersion)) {
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(new SeatMapDeltaDto(map.version(), true, mappers.toSeatDtos(map)));
+        }
+        var layout = map.layout();
+        List<SeatDto> changed = new ArrayList<>();
+        for (int i = 0; i < map.size(); i++) {
+            if (map.changedSince(i, sinceVersion)) changed.add(new SeatDto(layout.seatId(i), layout.row(i), layout.number(i), map.isTaken(i)));
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(new SeatMapDeltaDto(map.version(), false, changed));
+    }
+
+    @GetMapping(path = "/screenings/{id}/seats", params = {"format", "sinceVersion"})
+    public ResponseEntity<Void> seatMapFormatSince(@PathVariable Long id) {
+        // a delta only comes as JSON; without this mapping the two above would both match and fail as ambiguous
+        throw new IllegalArgumentException("'format' and 'sinceVersion' cannot be combined");
+    }
+
+    // each representation gets its own tag, so a cache never answers one with another
+    private static String etag(SeatMap map, String representation) {
+        return "\"v" + map.version() + representation + "\"";
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    @GetMapping(path = "/screenings/{id}/seats/stream", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> seatMapStream(@PathVariable Long id) {
+        return seatMapBroadcaster.subscribe(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/screenings/{id}/best-seats")
+    public ResponseEntity<List<SeatDto>> bestSeats(@PathVariable Long id, @RequestParam(name = "count", defaultValue = "1") int count) {
+        var block = seatInventory.bestBlock(id, count, seatHolds.heldSeats(id)).orElse(null);
+        if (block == null) return ResponseEntity.notFound().build();
+        var layout = block.layout();
+        List<SeatDto> seats = new ArrayList<>(block.found() ? count : 0);
+        for (int i = block.from(); block.found() && i < block.from() + count; i++) {
+            seats.add(new SeatDto(layout.seatId(i), layout.row(i), layout.number(i), false));
+        }
+        return ResponseEntity.ok(seats);
+    }
+
+    @PostMapping("/screenings/{id}/holds")
+    public ResponseEntity<SeatHoldDto> holdSeats(@CurrentUser Long userId, @PathVariable Long id, @Valid @RequestBody SeatHoldRequest req) {
+        try {
+            var expiresAt = seatHolds.hold(id, userId, req.seatIds());
+            return ResponseEntity.ok(new SeatHoldDto(id, req.seatIds(), expiresAt));
+        } catch (DataIntegrityViolationException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/screenings/{id}/holds")
+    public ResponseEntity<Void> releaseSeats(@CurrentUser Long userId, @PathVariable Long id) {
+        seatHolds.release(id, userId);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/bookings")
-    public ResponseEntity<BookingDto> createBooking(Authentication auth, @Valid @RequestBody BookingCreateRequest req) {
-        User user = userRepository.findByEmail(auth.getName()).orElseThrow();
+    public ResponseEntity<BookingDto> createBooking(@CurrentUser Long userId, @Valid @RequestBody BookingCreateRequest req,
+                                                    @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return book(userId, req, null);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 100) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to 100 characters");
+        }
+        // a retry with a known key replays the original booking instead of booking again
+        String fingerprint = fingerprint(req.screeningId(), req.seatIds());
+        return idempotencyStore.execute(userId, idempotencyKey, fingerprint, () -> bookingRepository
+                .findByIdempotencyKey(userId, idempotencyKey)
+                .map(b -> replay(b, fingerprint))
+                .orElseGet(() -> book(userId, req, idempotencyKey)));
+    }
+
+    private ResponseEntity<BookingDto> replay(Booking b, String fingerprint) {
+        if (!fingerprint(b.getScreening().getId(), b.getTickets().stream().map(t -> t.getSeat().getId()).toList()).equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException();
+        }
+        return ResponseEntity.ok(mappers.toBookingDto(b));
+    }
+
+    private static String fingerprint(Long screeningId, List<Long> seatIds) {
+        return screeningId + ":" + (seatIds == null ? "" : seatIds.stream().distinct().sorted().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    /** Throws on failure rather than returning an error status, so an idempotency entry is never kept for it. */
+    private ResponseEntity<BookingDto> book(Long userId, BookingCreateRequest req, String idempotencyKey) {
         try {
-            Booking b = bookingService.book(user.getId(), req.screeningId(), req.seatIds(), userRepository);
+            Booking b;
+            if (bookingPipeline.isEnabled()) {
+                b = bookingPipeline.book(userId, req.screeningId(), req.seatIds(), idempotencyKey);
+            } else {
+                // load the seat inventory before the booking transaction takes a connection
+                seatInventory.warm(req.screeningId());
+                b = bookingService.book(userId, req.screeningId(), req.seatIds(), idempotencyKey, userRepository);
+            }
             return ResponseEntity.ok(mappers.toBookingDto(b));
+        } catch (DataIntegrityViolationException ex) {
+            // the key row is unique, so a duplicate that raced past the in-memory store lands here
+            if (idempotencyKey != null) {
+                var existing = bookingRepository.findByIdempotencyKey(userId, idempotencyKey);
+                if (existing.isPresent()) return replay(existing.get(), fingerprint(req.screeningId(), req.seatIds()));
+            }
+            throw ex;
+        }
+    }
+
+    @PostMapping("/bookings/batch")
+    public ResponseEntity<List<BookingDto>> createBookings(@CurrentUser Long userId, @RequestBody List<@Valid BookingCreateRequest> reqs) {
+        // the whole batch is one transaction, holding its row locks and connection until the last booking
+        if (reqs.isEmpty() || reqs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch holds 1 to " + maxBatchSize + " bookings");
+        }
+        var selections = reqs.stream().map(r -> new BookingService.SeatSelection(r.screeningId(), r.seatIds())).toList();
+        selections.stream().map(BookingService.SeatSelection::screeningId).distinct().forEach(seatInventory::warm);
+        try {
+            List<Booking> bookings = bookingService.bookAll(userId, selections, userRepository);
+            return ResponseEntity.ok(bookings.stream().map(mappers::toBookingDto).toList());
         } catch (DataIntegrityViolationException ex) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
     @GetMapping("/bookings/me")
-    public List<BookingDto> myBookings(Authentication auth) {
-        User user = userRepository.findByEmail(auth.getName()).orElseThrow();
-        return bookingRepository.findByUserId(user.getId()).stream().map(mappers::toBookingDto).toList();
+    public List<BookingDto> myBookings(@CurrentUser Long userId) {
+        return bookingRepository.findByUserId(userId).stream().map(mappers::toBookingDto).toList();
     }
 
     @GetMapping("/screenings/{id}/bookings")
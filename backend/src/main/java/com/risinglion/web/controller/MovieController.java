@@ -4,16 +4,27 @@ import com.risinglion.domain.entity.Category;
 import com.risinglion.domain.entity.Movie;
 import com.risinglion.domain.repo.CategoryRepository;
 import com.risinglion.domain.repo.MovieRepository;
+import com.risinglion.domain.service.MovieCatalog;
+import com.risinglion.domain.service.MovieSearchIndex;
+import com.risinglion.domain.service.MovieTitleIndex;
+import com.risinglion.domain.service.RatingService;
+import com.risinglion.domain.service.RecommendationService;
+import com.risinglion.domain.service.ScreeningScheduler;
 import com.risinglion.mapper.Mappers;
 import com.risinglion.web.dto.CommonDtos.*;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
@@ -21,11 +32,23 @@ public class MovieController {
 
     private final MovieRepository movieRepository;
     private final CategoryRepository categoryRepository;
+    private final MovieTitleIndex titleIndex;
+    private final MovieSearchIndex searchIndex;
+    private final MovieCatalog catalog;
+    private final RatingService ratings;
+    private final RecommendationService recommendations;
+    private final ScreeningScheduler scheduler;
     private final Mappers mappers;
 
-    public MovieController(MovieRepository movieRepository, CategoryRepository categoryRepository, Mappers mappers) {
+    public MovieController(MovieRepository movieRepository, CategoryRepository categoryRepository, MovieTitleIndex titleIndex, MovieSearchIndex searchIndex, MovieCatalog catalog, RatingService ratings, RecommendationService recommendations, ScreeningScheduler scheduler, Mappers mappers) {
         this.movieRepository = movieRepository;
         this.categoryRepository = categoryRepository;
+        this.titleIndex = titleIndex;
+        this.searchIndex = searchIndex;
+        this.catalog = catalog;
+        this.ratings = ratings;
+        this.recommendations = recommendations;
+        this.scheduler = scheduler;
         this.mappers = mappers;
     }
 
@@ -33,12 +56,73 @@ public class MovieController {
     public Page<MovieDto> movies(@RequestParam(name = "query", required = false) String query,
                                  @RequestParam(name = "categoryId", required = false) Long categoryId,
                                  @RequestParam(name = "page", defaultValue = "0") int page) {
-        return movieRepository.search(query, categoryId, PageRequest.of(page, 12)).map(mappers::toMovieDto);
+        // matching runs against the in-memory title index; only the requested page is loaded
+        PageRequest pageable = PageRequest.of(page, 12);
+        List<Long> ids = titleIndex.search(query, categoryId);
+        List<Long> pageIds = slice(ids, pageable);
+        Map<Long, Movie> movies = movieRepository.findByIdIn(pageIds).stream().collect(Collectors.toMap(Movie::getId, m -> m));
+        List<MovieDto> content = pageIds.stream().map(movies::get).filter(Objects::nonNull).map(this::toDto).toList();
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    /**
+     * Cursor mode of the catalogue, selected by {@code sort=title} or {@code sort=releaseDate}. Pass the returned
+     * {@code nextCursor} to get the following page; the total is only counted when {@code withTotal=true}.
+     */
+    @GetMapping(path = "/movies", params = "sort")
+    public MovieCursorPageDto moviesByCursor(@RequestParam(name = "sort") String sort,
+                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                             @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                             @RequestParam(name = "query", required = false) String query,
+                                             @RequestParam(name = "size", defaultValue = "12") int size,
+                                             @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) {
+        if (query != null && !query.isBlank()) {
+            throw new IllegalArgumentException("query is matched by page, not by cursor; drop sort to search");
+        }
+        MovieCatalog.Slice slice = catalog.page(parseSort(sort), categoryId, cursor, Math.min(Math.max(size, 1), 50));
+        List<MovieDto> content = slice.movies().stream().map(this::toDto).toList();
+        return new MovieCursorPageDto(content, slice.nextCursor(), withTotal ? catalog.count(categoryId) : null);
+    }
+
+    /** Relevance-ranked search over titles and descriptions, answered from the in-memory index. */
+    @GetMapping("/movies/search")
+    public Page<MovieDto> search(@RequestParam(name = "query") String query,
+                                 @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                 @RequestParam(name = "page", defaultValue = "0") int page) {
+        return searchIndex.search(query, categoryId, PageRequest.of(page, 12)).map(m -> mappers.withRating(m, ratings.rating(m.id())));
+    }
+
+    /** Typo-tolerant title suggestions for the search box, answered from memory. */
+    @GetMapping("/movies/autocomplete")
+    public Page<MovieSuggestionDto> autocomplete(@RequestParam(name = "query") String query,
+                                                 @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                                 @RequestParam(name = "page", defaultValue = "0") int page,
+                                                 @RequestParam(name = "size", defaultValue = "10") int size) {
+        PageRequest pageable = PageRequest.of(page, Math.min(Math.max(size, 1), 50));
+        List<MovieTitleIndex.Suggestion> suggestions = titleIndex.suggest(query, categoryId);
+        List<MovieSuggestionDto> content = slice(suggestions, pageable).stream()
+                .map(s -> new MovieSuggestionDto(s.id(), s.title())).toList();
+        return new PageImpl<>(content, pageable, suggestions.size());
+    }
+
+    /** Best rated movies first, ranked in memory as reviews come in. */
+    @GetMapping("/movies/top-rated")
+    public List<MovieDto> topRated(@RequestParam(name = "limit", defaultValue = "10") int limit) {
+        List<Long> ids = ratings.topRated(Math.min(Math.max(limit, 1), 50));
+        Map<Long, Movie> movies = movieRepository.findByIdIn(ids).stream().collect(Collectors.toMap(Movie::getId, m -> m));
+        return ids.stream().map(movies::get).filter(Objects::nonNull).map(this::toDto).toList();
+    }
+
+    @GetMapping("/movies/{id}/recommendations")
+    public List<MovieDto> recommendations(@PathVariable("id") Long id, @RequestParam(name = "limit", defaultValue = "6") int limit) {
+        List<Long> ids = recommendations.alsoBooked(id, Math.min(Math.max(limit, 1), 20));
+        Map<Long, Movie> movies = movieRepository.findByIdIn(ids).stream().collect(Collectors.toMap(Movie::getId, m -> m));
+        return ids.stream().map(movies::get).filter(Objects::nonNull).map(this::toDto).toList();
     }
 
     @GetMapping("/movies/{id}")
     public ResponseEntity<MovieDto> movie(@PathVariable("id") Long id) {
-        return movieRepository.findById(id).map(mappers::toMovieDto).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return movieRepository.findWithCategoryById(id).map(this::toDto).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/categories")
@@ -57,7 +141,10 @@ public class MovieController {
     public ResponseEntity<CategoryDto> updateCategory(@PathVariable("id") Long id, @Valid @RequestBody CategoryUpdateRequest req) {
         Category c = categoryRepository.findById(id).orElseThrow();
         c.setName(req.name());
-        return ResponseEntity.ok(mappers.toCategoryDto(categoryRepository.save(c)));
+        c = categoryRepository.save(c);
+        // search hits carry their category, so pick up the new name
+        searchIndex.rebuild();
+        return ResponseEntity.ok(mappers.toCategoryDto(c));
     }
 
     @DeleteMapping("/admin/categories/{id}")
@@ -69,7 +156,11 @@ public class MovieController {
     public ResponseEntity<MovieDto> createMovie(@Valid @RequestBody MovieCreateRequest req) {
         Category cat = categoryRepository.findById(req.categoryId()).orElseThrow();
         Movie m = Movie.builder().title(req.title()).duration(req.duration()).description(req.description()).releaseDate(req.releaseDate()).imageURL(req.imageURL()).category(cat).build();
-        return ResponseEntity.ok(mappers.toMovieDto(movieRepository.save(m)));
+        m = movieRepository.save(m);
+        titleIndex.put(m);
+        searchIndex.put(m);
+        catalog.invalidateCounts();
+        return ResponseEntity.ok(toDto(m));
     }
 
     @PutMapping("/admin/movies/{id}")
@@ -78,10 +169,39 @@ public class MovieController {
         Movie m = movieRepository.findById(id).orElseThrow();
         Category cat = categoryRepository.findById(req.categoryId()).orElseThrow();
         m.setTitle(req.title()); m.setDuration(req.duration()); m.setDescription(req.description()); m.setReleaseDate(req.releaseDate()); m.setImageURL(req.imageURL()); m.setCategory(cat);
-        return ResponseEntity.ok(mappers.toMovieDto(movieRepository.save(m)));
+        m = movieRepository.save(m);
+        titleIndex.put(m);
+        searchIndex.put(m);
+        scheduler.movieDurationChanged(m.getId(), m.getDuration());
+        // the movie may have moved to another category
+        catalog.invalidateCounts();
+        return ResponseEntity.ok(toDto(m));
     }
 
     @DeleteMapping("/admin/movies/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteMovie(@PathVariable("id") Long id) { movieRepository.deleteById(id); return ResponseEntity.noContent().build(); }
+    public ResponseEntity<Void> deleteMovie(@PathVariable("id") Long id) {
+        movieRepository.deleteById(id);
+        titleIndex.remove(id);
+        searchIndex.remove(id);
+        catalog.invalidateCounts();
+        return ResponseEntity.noContent().build();
+    }
+
+    private MovieDto toDto(Movie m) {
+        return mappers.toMovieDto(m, ratings.rating(m.getId()));
+    }
+
+    private static MovieCatalog.Sort parseSort(String sort) {
+        return switch (sort) {
+            case "title" -> MovieCatalog.Sort.TITLE;
+            case "releaseDate" -> MovieCatalog.Sort.RELEASE_DATE;
+            default -> throw new IllegalArgumentException("sort must be title or releaseDate");
+        };
+    }
+
+    private static <T> List<T> slice(List<T> all, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        return all.subList(from, Math.min(from + pageable.getPageSize(), all.size()));
+    }
 }
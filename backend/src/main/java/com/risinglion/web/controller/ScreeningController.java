@@ -6,17 +6,26 @@ import com.risinglion.domain.entity.Theater;
 import com.risinglion.domain.repo.ScreeningRepository;
 import com.risinglion.domain.repo.MovieRepository;
 import com.risinglion.domain.repo.TheaterRepository;
+import com.risinglion.domain.service.ScheduleCache;
+import com.risinglion.domain.service.ScreeningImporter;
+import com.risinglion.domain.service.ScreeningScheduler;
+import com.risinglion.domain.service.SeatInventory;
 import com.risinglion.mapper.Mappers;
 import com.risinglion.web.dto.CommonDtos.*;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -26,24 +35,56 @@ public class ScreeningController {
     private final ScreeningRepository screeningRepository;
     private final TheaterRepository theaterRepository;
     private final MovieRepository movieRepository;
+    private final SeatInventory seatInventory;
+    private final ScreeningScheduler scheduler;
+    private final ScreeningImporter importer;
+    private final ScheduleCache schedule;
     private final Mappers mappers;
 
-    public ScreeningController(ScreeningRepository screeningRepository, TheaterRepository theaterRepository, MovieRepository movieRepository, Mappers mappers) {
+    public ScreeningController(ScreeningRepository screeningRepository, TheaterRepository theaterRepository, MovieRepository movieRepository, SeatInventory seatInventory, ScreeningScheduler scheduler, ScreeningImporter importer, ScheduleCache schedule, Mappers mappers) {
         this.screeningRepository = screeningRepository;
         this.theaterRepository = theaterRepository;
         this.movieRepository = movieRepository;
+        this.seatInventory = seatInventory;
+        this.scheduler = scheduler;
+        this.importer = importer;
+        this.schedule = schedule;
         this.mappers = mappers;
     }
 
     @GetMapping("/theaters")
     public List<TheaterDto> theaters() { return theaterRepository.findAll().stream().map(mappers::toTheaterDto).toList(); }
 
+    @GetMapping("/theaters/{id}/layout")
+    public ResponseEntity<TheaterLayoutDto> theaterLayout(@PathVariable Long id) {
+        return seatInventory.layout(id)
+                .map(layout -> {
+                    List<LayoutSeatDto> seats = new ArrayList<>(layout.size());
+                    for (int i = 0; i < layout.size(); i++) seats.add(new LayoutSeatDto(layout.seatId(i), layout.row(i), layout.number(i)));
+                    // seats are never edited through the API, so the layout can be cached by clients and proxies
+                    return ResponseEntity.ok().cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                            .body(new TheaterLayoutDto(id, seats));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/theaters/{id}/free-slots")
+    public List<TimeSlotDto> freeSlots(@PathVariable Long id, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                       @RequestParam(name = "minutes", defaultValue = "0") int minutes) {
+        return scheduler.freeSlots(id, date, Math.max(minutes, 0)).stream()
+                .map(slot -> new TimeSlotDto(mappers.localDateTimeToUtcZ(slot.start()), mappers.localDateTimeToUtcZ(slot.end())))
+                .toList();
+    }
+
     @GetMapping("/screenings")
     public List<ScreeningDto> screenings(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        // Use start/end of day window to be portable across DBs and avoid DATE() in JPQL
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.plusDays(1).atStartOfDay();
-        return screeningRepository.findByDatetimeBetween(start, end).stream().map(mappers::toScreeningDto).toList();
+        return schedule.day(date);
+    }
+
+    @GetMapping(path = "/screenings", params = {"from", "to"})
+    public List<ScreeningDto> screeningsInRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return schedule.range(from, to);
     }
 
     @GetMapping("/screenings/{id}")
@@ -53,10 +94,7 @@ public class ScreeningController {
 
     @GetMapping("/movies/{id}/screenings")
     public List<ScreeningDto> screeningsForMovie(@PathVariable Long id, @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        LocalDate d = date != null ? date : LocalDate.now();
-        LocalDateTime start = d.atStartOfDay();
-        LocalDateTime end = d.plusDays(1).atStartOfDay();
-        return screeningRepository.findByMovieIdAndDatetimeBetween(id, start, end).stream().map(mappers::toScreeningDto).toList();
+        return schedule.day(date != null ? date : LocalDate.now(), id);
     }
 
     @PostMapping("/admin/theaters")
@@ -78,23 +116,21 @@ public class ScreeningController {
         Theater t = new Theater(); t.setId(req.theaterId());
 
         var start = req.datetime().atZone(java.time.ZoneOffset.UTC).toLocalDateTime();
-        var end = start.plusMinutes(m.getDuration());
-
-        var windowStart = start.minusDays(1);
-        var windowEnd = end.plusDays(1);
-        var conflicts = screeningRepository.findByTheaterIdAndDatetimeBetween(req.theaterId(), windowStart, windowEnd)
-                .stream()
-                .anyMatch(existing -> {
-                    var existingStart = existing.getDatetime();
-                    var existingEnd = existingStart.plusMinutes(existing.getMovie().getDuration());
-                    return start.isBefore(existingEnd) && end.isAfter(existingStart);
-                });
-        if (conflicts) {
-            throw new IllegalArgumentException("Screening overlaps with an existing screening in this theater");
-        }
-
         s.setMovie(m); s.setTheater(t); s.setDatetime(start); s.setTicketPrice(req.ticketPrice());
-        return mappers.toScreeningDto(screeningRepository.save(s));
+        return mappers.toScreeningDto(scheduler.save(s));
+    }
+
+    @PostMapping(path = "/admin/screenings/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ScreeningImportReportDto importScreenings(@RequestBody ScreeningImportRequest req, @RequestParam(name = "dryRun", defaultValue = "false") boolean dryRun) {
+        return importer.importRequest(req, dryRun);
+    }
+
+    @PostMapping(path = "/admin/screenings/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ScreeningImportReportDto importScreeningsCsv(Reader body, @RequestParam(name = "dryRun", defaultValue = "false") boolean dryRun) throws IOException {
+        // read line by line straight from the request
+        return importer.importCsv(body, dryRun);
     }
 
     @PutMapping("/admin/screenings/{id}")
@@ -105,27 +141,18 @@ public class ScreeningController {
         Theater t = new Theater(); t.setId(req.theaterId());
 
         var start = req.datetime().atZone(java.time.ZoneOffset.UTC).toLocalDateTime();
-        var end = start.plusMinutes(m.getDuration());
-
-        var windowStart = start.minusDays(1);
-        var windowEnd = end.plusDays(1);
-        var conflicts = screeningRepository.findByTheaterIdAndDatetimeBetween(req.theaterId(), windowStart, windowEnd)
-                .stream()
-                .filter(existing -> !existing.getId().equals(id))
-                .anyMatch(existing -> {
-                    var existingStart = existing.getDatetime();
-                    var existingEnd = existingStart.plusMinutes(existing.getMovie().getDuration());
-                    return start.isBefore(existingEnd) && end.isAfter(existingStart);
-                });
-        if (conflicts) {
-            throw new IllegalArgumentException("Screening overlaps with an existing screening in this theater");
-        }
-
         s.setMovie(m); s.setTheater(t); s.setDatetime(start); s.setTicketPrice(req.ticketPrice());
-        return mappers.toScreeningDto(screeningRepository.save(s));
+        ScreeningDto dto = mappers.toScreeningDto(scheduler.save(s));
+        // the theater may have changed, so the cached seat layout no longer applies
+        seatInventory.evict(id);
+        return dto;
     }
 
     @DeleteMapping("/admin/screenings/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteScreening(@PathVariable Long id) { screeningRepository.deleteById(id); return ResponseEntity.noContent().build(); }
+    public ResponseEntity<Void> deleteScreening(@PathVariable Long id) {
+        scheduler.delete(id);
+        seatInventory.evict(id);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -5,7 +5,7 @@ import com.risinglion.domain.repo.UserRepository;
 import com.risinglion.web.dto.CommonDtos.*;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import com.risinglion.security.CurrentUser;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,14 +17,14 @@ public class UserController {
     public UserController(UserRepository userRepository) { this.userRepository = userRepository; }
 
     @GetMapping("/me")
-    public ResponseEntity<MeResponse> me(Authentication authentication) {
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
-        return ResponseEntity.ok(new MeResponse(user.getId(), user.getEmail(), user.isAdmin()));
+    public ResponseEntity<MeResponse> me(@CurrentUser Long userId) {
+        // read from the table rather than the token so a changed email shows up right away
+        return ResponseEntity.ok(userRepository.findMeById(userId).orElseThrow());
     }
 
     @PatchMapping("/me")
-    public ResponseEntity<MeResponse> updateMe(Authentication authentication, @Valid @RequestBody MeUpdateRequest req) {
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+    public ResponseEntity<MeResponse> updateMe(@CurrentUser Long userId, @Valid @RequestBody MeUpdateRequest req) {
+        User user = userRepository.findById(userId).orElseThrow();
         if (req.email() != null) user.setEmail(req.email());
         userRepository.save(user);
         return ResponseEntity.ok(new MeResponse(user.getId(), user.getEmail(), user.isAdmin()));
@@ -16,7 +16,9 @@ public class AuthDtos {
             @NotBlank String password
     ) {}
 
-    public record AuthResponse(String accessToken, UserSummary user) {}
+    public record AuthResponse(String accessToken, String refreshToken, UserSummary user) {}
+
+    public record RefreshRequest(@NotBlank String refreshToken) {}
 
     public record UserSummary(Long id, String email, boolean isAdmin) {}
 
@@ -1,11 +1,15 @@
 package com.risinglion.web.dto;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.Instant;
 import java.util.List;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 
 public class CommonDtos {
     // Category
@@ -14,24 +18,40 @@ public class CommonDtos {
     public record CategoryUpdateRequest(String name) {}
 
     // Movie
-    public record MovieDto(Long id, String title, int duration, String description, LocalDate releaseDate, String imageURL, CategoryDto category) {}
+    public record MovieDto(Long id, String title, int duration, String description, LocalDate releaseDate, String imageURL, CategoryDto category, RatingDto rating) {}
+    // histogram holds the number of 1..5 star reviews
+    public record RatingDto(int count, double average, List<Integer> histogram) {}
     public record MovieCreateRequest(String title, int duration, String description, LocalDate releaseDate, String imageURL, Long categoryId) {}
     public record MovieUpdateRequest(String title, int duration, String description, LocalDate releaseDate, String imageURL, Long categoryId) {}
+    public record MovieSuggestionDto(Long id, String title) {}
+    public record MovieCursorPageDto(List<MovieDto> content, String nextCursor, Long total) {}
 
     // Theater & Seat
     public record TheaterDto(Long id) {}
     public record TheaterCreateRequest() {}
     public record SeatDto(Long id, String row, int number, boolean taken) {}
+    public record SeatMapDeltaDto(long version, boolean full, List<SeatDto> seats) {}
+    public record LayoutSeatDto(Long id, String row, int number) {}
+    public record TheaterLayoutDto(Long theaterId, List<LayoutSeatDto> seats) {}
+    public record SeatBitsetDto(Long screeningId, Long theaterId, long version, int seatCount, String taken) {}
 
     // Screening
     public record ScreeningDto(Long id, String datetime, BigDecimal ticketPrice, Long movieId, Long theaterId) {}
     public record ScreeningCreateRequest(Long movieId, Long theaterId, Instant datetime, BigDecimal ticketPrice) {}
     public record ScreeningUpdateRequest(Long movieId, Long theaterId, Instant datetime, BigDecimal ticketPrice) {}
+    public record TimeSlotDto(String start, String end) {}
+    /** Screenings at {@code time} (UTC) on each of {@code days} (every day if empty) from {@code from} to {@code until}, inclusive. */
+    public record ScreeningRecurrenceRequest(Long movieId, Long theaterId, LocalDate from, LocalDate until, List<DayOfWeek> days, LocalTime time, BigDecimal ticketPrice) {}
+    public record ScreeningImportRequest(List<ScreeningCreateRequest> screenings, List<ScreeningRecurrenceRequest> recurrences) {}
+    public record ScreeningImportIssueDto(int row, Long theaterId, String datetime, String reason) {}
+    public record ScreeningImportReportDto(int accepted, int rejected, boolean dryRun, List<ScreeningImportIssueDto> issues) {}
 
     // Booking
     public record BookingDto(Long id, Long screeningId, BigDecimal totalPrice, List<TicketDto> tickets) {}
     public record TicketDto(Long id, Long seatId) {}
-    public record BookingCreateRequest(Long screeningId, List<Long> seatIds) {}
+    public record BookingCreateRequest(@NotNull Long screeningId, @NotEmpty List<@NotNull Long> seatIds) {}
+    public record SeatHoldRequest(List<Long> seatIds) {}
+    public record SeatHoldDto(Long screeningId, List<Long> seatIds, Instant expiresAt) {}
 
     // Review
     public record ReviewDto(Long id, int rating, String text, Long userId, Long movieId) {}
@@ -43,4 +63,8 @@ public class CommonDtos {
     public record MeUpdateRequest(String email) {}
 
     public record UserAdminDto(Long id, String username, String email, boolean isAdmin) {}
+
+    // Second-level cache; statements counts every prepared SQL statement since startup
+    public record CacheRegionStatsDto(String region, long hits, long misses, long puts) {}
+    public record CacheStatsDto(long hits, long misses, long puts, long queryCacheHits, long queryCacheMisses, long statements, List<CacheRegionStatsDto> regions) {}
 }
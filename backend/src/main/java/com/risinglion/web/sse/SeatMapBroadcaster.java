@@ -0,0 +1,161 @@
+package com.risinglion.web.sse;
+
+import com.risinglion.domain.service.SeatInventory;
+import com.risinglion.domain.service.SeatsBookedEvent;
+import com.risinglion.mapper.Mappers;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes seat-map changes to Server-Sent Events subscribers. A subscriber gets one full snapshot on
+ * connect and afterwards only the ids of seats that became taken. Sends run on a small pool, never on
+ * the booking thread; changes queued for a slow subscriber are coalesced, and once too many pile up the
+ * subscriber is resynced with a fresh snapshot instead.
+ */
+@Component
+public class SeatMapBroadcaster {
+    private final SeatInventory seatInventory;
+    private final Mappers mappers;
+    private final long timeoutMillis;
+    private final int maxPending;
+    private final ExecutorService senders;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public SeatMapBroadcaster(SeatInventory seatInventory, Mappers mappers,
+                              @Value("${app.seatStream.timeoutMinutes:30}") long timeoutMinutes,
+                              @Value("${app.seatStream.maxPending:256}") int maxPending,
+                              @Value("${app.seatStream.senders:4}") int senders) {
+        this.seatInventory = seatInventory;
+        this.mappers = mappers;
+        this.timeoutMillis = timeoutMinutes * 60 * 1000;
+        this.maxPending = maxPending;
+        AtomicInteger n = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senders, r -> {
+            Thread t = new Thread(r, "seat-stream-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Opens a stream for the screening, or empty if the screening does not exist. */
+    public Optional<SseEmitter> subscribe(Long screeningId) {
+        if (seatInventory.seatMap(screeningId).isEmpty()) return Optional.empty();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber sub = new Subscriber(screeningId, emitter);
+        // register before the snapshot is taken so no change can fall between the two
+        subscribers.computeIfAbsent(screeningId, id -> new CopyOnWriteArraySet<>()).add(sub);
+        emitter.onCompletion(() -> remove(sub));
+        emitter.onTimeout(() -> remove(sub));
+        emitter.onError(e -> remove(sub));
+        sub.requestSnapshot();
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        Set<Subscriber> subs = subscribers.get(event.screeningId());
+        if (subs == null) return;
+        for (Subscriber sub : subs) sub.enqueue(event.seatIds());
+    }
+
+    @PreDestroy
+    void stop() {
+        senders.shutdownNow();
+        subscribers.values().forEach(subs -> subs.forEach(s -> s.emitter.complete()));
+    }
+
+    private void remove(Subscriber sub) {
+        subscribers.computeIfPresent(sub.screeningId, (id, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+
+    private final class Subscriber {
+        private final Long screeningId;
+        private final SseEmitter emitter;
+        private final Set<Long> pending = new LinkedHashSet<>();
+        private boolean resync;
+        private boolean scheduled;
+
+        Subscriber(Long screeningId, SseEmitter emitter) {
+            this.screeningId = screeningId;
+            this.emitter = emitter;
+        }
+
+        synchronized void enqueue(List<Long> seatIds) {
+            if (!resync) {
+                pending.addAll(seatIds);
+                if (pending.size() > maxPending) {
+                    requestSnapshot();
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        synchronized void requestSnapshot() {
+            pending.clear();
+            resync = true;
+            schedule();
+        }
+
+        synchronized void schedule() {
+            if (scheduled) return;
+            scheduled = true;
+            senders.execute(this::flush);
+        }
+
+        /** Runs until nothing is pending, so at most one send per subscriber is in flight. */
+        private void flush() {
+            while (true) {
+                boolean snapshot;
+                List<Long> changed;
+                synchronized (this) {
+                    if (!resync && pending.isEmpty()) {
+                        scheduled = false;
+                        return;
+                    }
+                    snapshot = resync;
+                    changed = new ArrayList<>(pending);
+                    resync = false;
+                    pending.clear();
+                }
+                try {
+                    if (snapshot) {
+                        var map = seatInventory.seatMap(screeningId).orElse(null);
+                        if (map == null) {
+                            remove(this);
+                            emitter.complete();
+                            return;
+                        }
+                        emitter.send(SseEmitter.event().name("snapshot").data(mappers.toSeatDtos(map)));
+                    } else {
+                        emitter.send(SseEmitter.event().name("taken").data(changed));
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    remove(this);
+                    emitter.completeWithError(ex);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,2 @@
+-- day and range reads filter on datetime alone; uq_screening leads with theater_id and cannot serve them
+CREATE INDEX idx_screenings_datetime ON screenings (datetime);
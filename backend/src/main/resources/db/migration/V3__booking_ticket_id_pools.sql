@@ -0,0 +1,12 @@
+-- Pooled id allocation for bookings and tickets so Hibernate can batch their inserts.
+-- MySQL has no sequences, so each pool is a single-row table; next_val is the upper bound of the
+-- next block of 50 ids (matches allocationSize on the entities).
+CREATE TABLE booking_seq (
+  next_val BIGINT NOT NULL
+);
+INSERT INTO booking_seq(next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM bookings;
+
+CREATE TABLE ticket_seq (
+  next_val BIGINT NOT NULL
+);
+INSERT INTO ticket_seq(next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM tickets;
@@ -0,0 +1,11 @@
+-- Idempotency-Key of each POST /api/bookings that carried one, written in the booking's transaction
+CREATE TABLE booking_idempotency_keys (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  idempotency_key VARCHAR(100) NOT NULL,
+  booking_id BIGINT NOT NULL,
+  created_at DATETIME NOT NULL,
+  CONSTRAINT uq_booking_idempotency_key UNIQUE (user_id, idempotency_key),
+  CONSTRAINT fk_idempotency_user FOREIGN KEY (user_id) REFERENCES users(id),
+  CONSTRAINT fk_idempotency_booking FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE
+);
@@ -0,0 +1,2 @@
+-- Bumped whenever a user's existing tokens must stop working (role change, removal)
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- Refresh tokens are stored only as SHA-256 hashes; a rotated or logged-out token is kept as revoked until it expires
+CREATE TABLE refresh_tokens (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  token_hash CHAR(64) NOT NULL,
+  expires_at DATETIME NOT NULL,
+  revoked BOOLEAN NOT NULL DEFAULT FALSE,
+  created_at DATETIME NOT NULL,
+  CONSTRAINT uq_refresh_token_hash UNIQUE (token_hash),
+  CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_refresh_tokens_revoked ON refresh_tokens (revoked, expires_at);
@@ -0,0 +1,5 @@
+-- keyset paging over the catalogue, optionally within one category; InnoDB appends the id to each index
+CREATE INDEX idx_movies_title ON movies (title);
+CREATE INDEX idx_movies_release_date ON movies (release_date);
+CREATE INDEX idx_movies_category_title ON movies (category_id, title);
+CREATE INDEX idx_movies_category_release_date ON movies (category_id, release_date);
@@ -0,0 +1,17 @@
+-- per-movie review aggregates, changed in the same transaction as each review write
+CREATE TABLE movie_ratings (
+  movie_id BIGINT PRIMARY KEY,
+  rating_count INT NOT NULL,
+  rating_sum INT NOT NULL,
+  stars_1 INT NOT NULL,
+  stars_2 INT NOT NULL,
+  stars_3 INT NOT NULL,
+  stars_4 INT NOT NULL,
+  stars_5 INT NOT NULL,
+  CONSTRAINT fk_movie_rating_movie FOREIGN KEY (movie_id) REFERENCES movies(id) ON DELETE CASCADE
+);
+
+INSERT INTO movie_ratings (movie_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5)
+SELECT movie_id, COUNT(*), SUM(rating), SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5)
+FROM reviews
+GROUP BY movie_id;
@@ -0,0 +1,6 @@
+-- Pooled id allocation for screenings so a bulk schedule import is written as batched inserts
+-- (same single-row pool table as booking_seq; allocationSize 50 on the entity).
+CREATE TABLE screening_seq (
+  next_val BIGINT NOT NULL
+);
+INSERT INTO screening_seq(next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM screenings;
@@ -0,0 +1,72 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Booking;
+import com.risinglion.domain.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookingPipelineTest {
+    private final BookingService bookings = mock(BookingService.class);
+    private final UserRepository users = mock(UserRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final BookingPipeline pipeline = new BookingPipeline(bookings, mock(SeatInventory.class), users, transactionManager, true, 16, 16, 1, 1000);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void aFailedBatchFallsBackToOneBookingAtATime() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookings.book(eq(1L), eq(7L), anyList(), isNull(), eq(users))).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return booking(1L);
+        });
+        when(bookings.book(eq(2L), eq(7L), anyList(), isNull(), eq(users))).thenReturn(booking(2L));
+        when(bookings.book(eq(3L), eq(7L), anyList(), isNull(), eq(users))).thenThrow(new DataIntegrityViolationException("Seat already taken"));
+
+        // the first request keeps the lane busy, so the next two are drained together
+        CompletableFuture<Booking> first = pipeline.submit(1L, 7L, List.of(1L), null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Booking> second = pipeline.submit(2L, 7L, List.of(2L), null);
+        CompletableFuture<Booking> third = pipeline.submit(3L, 7L, List.of(3L), null);
+        release.countDown();
+
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(2L, second.get(5, TimeUnit.SECONDS).getId());
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> third.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, failed.getCause());
+        // once in the combined transaction, which was rolled back, and once on its own
+        verify(bookings, times(2)).book(eq(2L), eq(7L), anyList(), isNull(), eq(users));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void aCallerThatWaitsTooLongIsToldToRetry() {
+        when(bookings.book(eq(1L), eq(7L), anyList(), isNull(), eq(users))).thenAnswer(inv -> {
+            Thread.sleep(1500);
+            return booking(1L);
+        });
+        assertThrows(RejectedExecutionException.class, () -> pipeline.book(1L, 7L, List.of(1L), null));
+    }
+
+    private static Booking booking(long id) {
+        return Booking.builder().id(id).build();
+    }
+}
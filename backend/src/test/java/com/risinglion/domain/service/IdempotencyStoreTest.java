@@ -0,0 +1,69 @@
+package com.risinglion.domain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    private final IdempotencyStore store = new IdempotencyStore(60, 100);
+
+    @Test
+    void concurrentDuplicatesRunOnceAndShareTheResult() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = pool.submit(() -> store.execute(1L, "k", "7:1,2", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "booking-1";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<String>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                duplicates.add(pool.submit(() -> store.execute(1L, "k", "7:1,2", () -> "booking-" + runs.incrementAndGet())));
+            }
+            release.countDown();
+            assertEquals("booking-1", first.get(5, TimeUnit.SECONDS));
+            for (Future<String> d : duplicates) assertEquals("booking-1", d.get(5, TimeUnit.SECONDS));
+            // and later, once completed
+            assertEquals("booking-1", store.execute(1L, "k", "7:1,2", () -> "again"));
+            assertEquals(1, runs.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> store.execute(1L, "k", "7:1", () -> { throw new IllegalStateException("taken"); }));
+        assertEquals("ok", store.execute(1L, "k", "7:1", () -> "ok"));
+    }
+
+    @Test
+    void aKeyReusedForAnotherRequestIsRejected() {
+        store.execute(1L, "k", "7:1,2", () -> "booking-1");
+        assertThrows(IdempotencyKeyMismatchException.class, () -> store.execute(1L, "k", "7:3", () -> "booking-2"));
+        // keys are per user
+        assertEquals("booking-3", store.execute(2L, "k", "7:3", () -> "booking-3"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.repo.MovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MovieCatalogTest {
+    private final MovieRepository movies = mock(MovieRepository.class);
+    private final MovieCatalog catalog = new MovieCatalog(movies, 60);
+
+    @Test
+    void titlePagesSeekPastTheLastTitleAndId() {
+        when(movies.findTitlePage(null, null, null, PageRequest.of(0, 3)))
+                .thenReturn(List.of(movie(4, "Alien: Covenant", null), movie(2, "Brazil", null), movie(9, "Brazil", null)));
+        MovieCatalog.Slice first = catalog.page(MovieCatalog.Sort.TITLE, null, null, 2);
+        assertEquals(List.of(4L, 2L), first.movies().stream().map(Movie::getId).toList());
+        assertNotNull(first.nextCursor());
+
+        when(movies.findTitlePage(null, "Brazil", 2L, PageRequest.of(0, 3))).thenReturn(List.of(movie(9, "Brazil", null)));
+        MovieCatalog.Slice second = catalog.page(MovieCatalog.Sort.TITLE, null, first.nextCursor(), 2);
+        assertEquals(List.of(9L), second.movies().stream().map(Movie::getId).toList());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void releasePagesContinueIntoMoviesWithoutADate() {
+        when(movies.findReleasePage(7L, null, null, PageRequest.of(0, 3))).thenReturn(List.of(movie(5, "Dune", LocalDate.of(2021, 10, 22))));
+        when(movies.findUndatedPage(7L, null, PageRequest.of(0, 2))).thenReturn(List.of(movie(8, "Untitled", null), movie(3, "Unknown", null)));
+        MovieCatalog.Slice first = catalog.page(MovieCatalog.Sort.RELEASE_DATE, 7L, null, 2);
+        assertEquals(List.of(5L, 8L), first.movies().stream().map(Movie::getId).toList());
+
+        // the cursor now points into the undated tail, so only that part is queried
+        when(movies.findUndatedPage(7L, 8L, PageRequest.of(0, 3))).thenReturn(List.of(movie(3, "Unknown", null)));
+        MovieCatalog.Slice second = catalog.page(MovieCatalog.Sort.RELEASE_DATE, 7L, first.nextCursor(), 2);
+        assertEquals(List.of(3L), second.movies().stream().map(Movie::getId).toList());
+        assertNull(second.nextCursor());
+        verify(movies, times(1)).findReleasePage(any(), any(), any(), any());
+    }
+
+    @Test
+    void rejectsForeignAndMalformedCursors() {
+        when(movies.findTitlePage(null, null, null, PageRequest.of(0, 2))).thenReturn(List.of(movie(1, "A", null), movie(2, "B", null)));
+        String cursor = catalog.page(MovieCatalog.Sort.TITLE, null, null, 1).nextCursor();
+        assertThrows(IllegalArgumentException.class, () -> catalog.page(MovieCatalog.Sort.RELEASE_DATE, null, cursor, 1));
+        assertThrows(IllegalArgumentException.class, () -> catalog.page(MovieCatalog.Sort.TITLE, null, "not a cursor", 1));
+    }
+
+    @Test
+    void countsOnceUntilInvalidated() {
+        when(movies.count()).thenReturn(42L, 43L);
+        assertEquals(42L, catalog.count(null));
+        assertEquals(42L, catalog.count(null));
+        catalog.invalidateCounts();
+        assertEquals(43L, catalog.count(null));
+        verify(movies, times(2)).count();
+    }
+
+    private static Movie movie(long id, String title, LocalDate releaseDate) {
+        return Movie.builder().id(id).title(title).releaseDate(releaseDate).build();
+    }
+}
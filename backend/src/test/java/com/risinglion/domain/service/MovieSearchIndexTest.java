@@ -0,0 +1,83 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Category;
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.repo.MovieRepository;
+import com.risinglion.mapper.Mappers;
+import com.risinglion.web.dto.CommonDtos.MovieDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovieSearchIndexTest {
+    private final MovieRepository movies = mock(MovieRepository.class);
+    private final Category drama = Category.builder().id(1L).name("Drama").build();
+    private final Category action = Category.builder().id(2L).name("Action").build();
+    private MovieSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(movies.findAllWithCategory()).thenReturn(List.of(
+                movie(1L, "Interstellar", "Explorers travel through a wormhole in space to find a new home.", drama),
+                movie(2L, "Ocean's Eleven", "A charming thief plans an elaborate casino heist with his crew.", action),
+                movie(3L, "Heist", "A veteran thief is forced into one last job.", action),
+                movie(4L, "Gravity", "Two astronauts are stranded in space after debris destroys their shuttle. Space is silent.", drama)));
+        index = new MovieSearchIndex(movies, org.mapstruct.factory.Mappers.getMapper(Mappers.class));
+    }
+
+    @Test
+    void ranksTitleAndDescriptionMatches() {
+        assertEquals(List.of(3L, 2L), ids("heists"));
+        assertEquals(List.of(4L, 1L), ids("space"));
+        assertTrue(ids("Space", 2L).isEmpty());
+        // the shorter description weighs the same match higher
+        assertEquals(List.of(3L, 2L), ids("thief", 2L));
+        assertTrue(ids("the").isEmpty());
+    }
+
+    @Test
+    void followsAdminChangesWithoutReloading() {
+        index.put(movie(3L, "Heist", "A veteran safecracker takes one last job in space.", action));
+        index.remove(4L);
+
+        assertEquals(List.of(2L), ids("thief"));
+        assertEquals(List.of(3L, 1L), ids("space"));
+        assertEquals(1, index.search("space", null, PageRequest.of(1, 1)).getContent().size());
+        verify(movies, times(1)).findAllWithCategory();
+    }
+
+    @Test
+    void keepsEditsMadeWhileRebuilding() {
+        ids("space");
+        List<Movie> before = movies.findAllWithCategory();
+        // the table is read before the edits land, so only the replay brings them in
+        when(movies.findAllWithCategory()).thenAnswer(inv -> {
+            index.put(movie(3L, "Heist", "A veteran safecracker takes one last job in space.", drama));
+            index.remove(4L);
+            return before;
+        });
+        index.rebuild();
+
+        assertEquals(List.of(3L, 1L), ids("space"));
+        MovieDto hit = index.search("safecracker", 1L, PageRequest.of(0, 12)).getContent().get(0);
+        assertEquals("Drama", hit.category().name());
+        assertNull(hit.rating());
+    }
+
+    private List<Long> ids(String query) {
+        return ids(query, null);
+    }
+
+    private List<Long> ids(String query, Long categoryId) {
+        return index.search(query, categoryId, PageRequest.of(0, 12)).map(MovieDto::id).getContent();
+    }
+
+    private static Movie movie(Long id, String title, String description, Category category) {
+        return Movie.builder().id(id).title(title).description(description).duration(120).category(category).build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Category;
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.repo.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovieTitleIndexTest {
+    private final MovieRepository movies = mock(MovieRepository.class);
+    private MovieTitleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(movies.findAllTitles()).thenReturn(List.of(
+                title(1L, "Inception", 1L),
+                title(2L, "Interstellar", 1L),
+                title(3L, "Amélie", 2L),
+                title(4L, "The Dark Knight", 3L)));
+        index = new MovieTitleIndex(movies);
+    }
+
+    @Test
+    void searchMatchesSubstringsIgnoringCaseAndAccents() {
+        assertEquals(List.of(1L, 2L), index.search("IN", null));
+        assertEquals(List.of(2L), index.search("stell", null));
+        assertEquals(List.of(3L), index.search("amelie", null));
+        assertEquals(List.of(4L), index.search("dark kn", null));
+        assertEquals(List.of(), index.search("inception", 2L));
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.search(null, null));
+    }
+
+    @Test
+    void suggestToleratesTyposAndFollowsAdminChanges() {
+        assertEquals(1L, index.suggest("incepton", null).get(0).id());
+        assertEquals(2L, index.suggest("inte", null).get(0).id());
+
+        index.put(Movie.builder().id(5L).title("Inside Out").category(Category.builder().id(1L).build()).build());
+        index.remove(2L);
+
+        assertEquals(List.of(1L, 5L), index.search("in", 1L));
+        assertTrue(index.suggest("interstellar", null).isEmpty());
+        verify(movies, times(1)).findAllTitles();
+    }
+
+    private static MovieRepository.MovieTitle title(Long id, String title, Long categoryId) {
+        return new MovieRepository.MovieTitle() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public Long getCategoryId() { return categoryId; }
+        };
+    }
+}
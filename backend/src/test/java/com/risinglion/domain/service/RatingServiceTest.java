@@ -0,0 +1,75 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.entity.MovieRating;
+import com.risinglion.domain.entity.Review;
+import com.risinglion.domain.entity.User;
+import com.risinglion.domain.repo.MovieRatingRepository;
+import com.risinglion.domain.repo.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RatingServiceTest {
+    private final ReviewRepository reviews = mock(ReviewRepository.class);
+    private final MovieRatingRepository movieRatings = mock(MovieRatingRepository.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private RatingService ratings;
+
+    @BeforeEach
+    void setUp() {
+        // movie 1: one five-star review; movie 2: forty reviews averaging 4.5
+        when(movieRatings.findAll()).thenReturn(List.of(
+                MovieRating.builder().movieId(1L).ratingCount(1).ratingSum(5).stars5(1).build(),
+                MovieRating.builder().movieId(2L).ratingCount(40).ratingSum(180).stars4(20).stars5(20).build()));
+        when(reviews.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        // events are delivered after commit in the application; here they are delivered right away
+        doAnswer(inv -> {
+            ratings.onReviewRated(inv.getArgument(0));
+            return null;
+        }).when(events).publishEvent(any(Object.class));
+        ratings = new RatingService(reviews, movieRatings, events, 3.0, 5);
+        ratings.load();
+    }
+
+    @Test
+    void ranksWithThePriorSoOneReviewDoesNotTopTheList() {
+        assertEquals(List.of(2L, 1L), ratings.topRated(10));
+        assertEquals(4.5, ratings.rating(2L).average());
+        assertEquals(List.of(0, 0, 0, 20, 20), ratings.rating(2L).histogram());
+    }
+
+    @Test
+    void appliesEachWriteAsADelta() {
+        Movie movie = Movie.builder().id(3L).build();
+        User user = User.builder().id(7L).build();
+        when(reviews.findForUpdate(3L, 7L)).thenReturn(Optional.empty());
+        Review review = ratings.save(movie, user, 2, "meh");
+        verify(movieRatings).apply(3L, 1, 2, 0, 1, 0, 0, 0);
+        assertEquals(List.of(0, 1, 0, 0, 0), ratings.rating(3L).histogram());
+
+        // the delta comes from the row as read under the lock, not from what the caller saw earlier
+        when(reviews.findForUpdate(3L, 7L)).thenReturn(Optional.of(review));
+        ratings.update(3L, 7L, 5, "better the second time");
+        verify(movieRatings).apply(3L, 0, 3, 0, -1, 0, 0, 1);
+        assertEquals(5.0, ratings.rating(3L).average());
+        // same score and count as movie 1, so the lower id goes first
+        assertEquals(List.of(2L, 1L, 3L), ratings.topRated(10));
+
+        assertTrue(ratings.delete(3L, 7L));
+        verify(movieRatings).apply(3L, -1, -5, 0, 0, 0, 0, -1);
+        assertEquals(0, ratings.rating(3L).count());
+        assertEquals(List.of(2L, 1L), ratings.topRated(10));
+
+        when(reviews.findForUpdate(3L, 7L)).thenReturn(Optional.empty());
+        assertTrue(ratings.update(3L, 7L, 4, null).isEmpty());
+        assertFalse(ratings.delete(3L, 7L));
+    }
+}
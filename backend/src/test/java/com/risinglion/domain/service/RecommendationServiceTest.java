@@ -0,0 +1,60 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.repo.BookingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecommendationServiceTest {
+    private final BookingRepository bookings = mock(BookingRepository.class);
+
+    @Test
+    void ranksCoBookedMoviesByCosineAndFollowsNewBookings() {
+        // movie 1 shares two customers with movie 2 and one with movie 3, which one other customer also booked
+        when(bookings.findUserMovies()).thenReturn(List.of(
+                pair(10, 1), pair(10, 2), pair(11, 1), pair(11, 2), pair(11, 3), pair(12, 3)));
+        RecommendationService service = new RecommendationService(bookings, 100);
+        service.load();
+        assertEquals(List.of(2L, 3L), service.alsoBooked(1L, 5));
+        assertEquals(List.of(2L), service.alsoBooked(1L, 1));
+
+        service.onSeatsBooked(new SeatsBookedEvent(7L, 3L, 10L, List.of(1L)));
+        service.onSeatsBooked(new SeatsBookedEvent(8L, 3L, 10L, List.of(2L)));
+        // rebooking a movie the customer already saw adds nothing
+        assertEquals(List.of(1L, 2L), service.alsoBooked(3L, 5));
+        assertEquals(List.of(), service.alsoBooked(99L, 5));
+    }
+
+    @Test
+    void fullRowsReplaceTheirWeakestNeighbour() {
+        when(bookings.findUserMovies()).thenReturn(List.of(
+                pair(10, 1), pair(10, 2), pair(11, 1), pair(11, 2), pair(12, 1), pair(12, 3)));
+        RecommendationService service = new RecommendationService(bookings, 2);
+        service.load();
+
+        service.onSeatsBooked(new SeatsBookedEvent(7L, 4L, 12L, List.of(1L)));
+        // 3 (count 1) gave way to 4, which starts above it at 2; 2 keeps its count of 2
+        List<Long> neighbours = service.alsoBooked(1L, 5);
+        assertEquals(2, neighbours.size());
+        assertTrue(neighbours.containsAll(List.of(2L, 4L)));
+    }
+
+    @Test
+    void primitiveMapKeepsProbeRunsIntactAfterRemoval() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long k = 1; k <= 1000; k++) map.addTo(k, (int) k);
+        for (long k = 1; k <= 1000; k += 2) map.remove(k);
+        assertEquals(500, map.size());
+        for (long k = 1; k <= 1000; k++) assertEquals(k % 2 == 0 ? (int) k : 0, map.get(k));
+    }
+
+    private static BookingRepository.UserMovie pair(long userId, long movieId) {
+        return new BookingRepository.UserMovie() {
+            public Long getUserId() { return userId; }
+            public Long getMovieId() { return movieId; }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.entity.Screening;
+import com.risinglion.domain.entity.Theater;
+import com.risinglion.domain.repo.ScreeningRepository;
+import com.risinglion.mapper.Mappers;
+import com.risinglion.web.dto.CommonDtos.ScreeningDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ScheduleCacheTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    private final ScreeningRepository screenings = mock(ScreeningRepository.class);
+    private final ScheduleCache cache = new ScheduleCache(screenings, org.mapstruct.factory.Mappers.getMapper(Mappers.class), 7, 90);
+
+    @Test
+    void daysAreBuiltOnceInTimeOrderUntilTheyChange() {
+        when(screenings.findStartingBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(screening(2, 5, DAY.atTime(20, 0)), screening(1, 6, DAY.atTime(18, 0))));
+        assertEquals(List.of(1L, 2L), cache.day(DAY).stream().map(ScreeningDto::id).toList());
+        assertEquals(List.of(2L), cache.day(DAY, 5L).stream().map(ScreeningDto::id).toList());
+        verify(screenings, times(1)).findStartingBetween(any(), any());
+
+        cache.onScreeningsChanged(new ScreeningsChangedEvent(Set.of(DAY.plusDays(3))));
+        cache.day(DAY);
+        verify(screenings, times(1)).findStartingBetween(any(), any());
+        cache.onScreeningsChanged(new ScreeningsChangedEvent(Set.of(DAY)));
+        cache.day(DAY);
+        verify(screenings, times(2)).findStartingBetween(any(), any());
+    }
+
+    @Test
+    void rangesMergeCachedDaysAndAreBounded() {
+        when(screenings.findStartingBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())).thenReturn(List.of(screening(1, 5, DAY.atTime(18, 0))));
+        when(screenings.findStartingBetween(DAY.plusDays(2).atStartOfDay(), DAY.plusDays(3).atStartOfDay())).thenReturn(List.of(screening(3, 5, DAY.plusDays(2).atTime(9, 0))));
+        cache.day(DAY);
+        assertEquals(List.of(1L, 3L), cache.range(DAY, DAY.plusDays(2)).stream().map(ScreeningDto::id).toList());
+        // the first day came from the cache
+        verify(screenings, times(3)).findStartingBetween(any(), any());
+
+        assertThrows(IllegalArgumentException.class, () -> cache.range(DAY, DAY.plusDays(7)));
+        assertThrows(IllegalArgumentException.class, () -> cache.range(DAY, DAY.minusDays(1)));
+    }
+
+    private static Screening screening(long id, long movieId, LocalDateTime start) {
+        Theater t = new Theater();
+        t.setId(1L);
+        return Screening.builder().id(id).theater(t).movie(Movie.builder().id(movieId).build()).datetime(start).build();
+    }
+}
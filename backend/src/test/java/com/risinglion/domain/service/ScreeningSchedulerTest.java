@@ -0,0 +1,99 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Movie;
+import com.risinglion.domain.entity.Screening;
+import com.risinglion.domain.entity.Theater;
+import com.risinglion.domain.repo.ScreeningRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ScreeningSchedulerTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    private final ScreeningRepository screenings = mock(ScreeningRepository.class);
+    private final ScreeningScheduler scheduler = new ScreeningScheduler(screenings, mock(ApplicationEventPublisher.class));
+
+    @Test
+    void rejectsOverlapsInTheSameTheaterOnly() {
+        // a long movie at 10:00 and a short one at 15:00 in theater 1
+        when(screenings.findAllSlots()).thenReturn(List.of(slot(1, 1, 1, at(10, 0), 240), slot(2, 1, 2, at(15, 0), 90)));
+        scheduler.load();
+        when(screenings.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        assertThrows(IllegalArgumentException.class, () -> scheduler.save(screening(null, 1, 3, 90, at(13, 30))));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.save(screening(null, 1, 3, 90, at(14, 0))));
+        assertEquals(at(14, 0), scheduler.save(screening(10L, 2, 3, 90, at(14, 0))).getDatetime());
+        // back to back is fine, and a screening may move within its own range
+        scheduler.save(screening(11L, 1, 3, 60, at(14, 0)));
+        scheduler.save(screening(2L, 1, 2, 90, at(15, 30)));
+        verify(screenings, times(3)).save(any());
+    }
+
+    @Test
+    void batchesSkipOverlapsWithTheScheduleAndWithEarlierRows() {
+        when(screenings.findAllSlots()).thenReturn(List.of(slot(1, 1, 1, at(10, 0), 120)));
+        scheduler.load();
+        List<Screening> batch = List.of(
+                screening(null, 1, 2, 90, at(11, 0)),
+                screening(null, 1, 2, 90, at(12, 0)),
+                screening(null, 1, 2, 90, at(13, 0)),
+                screening(null, 2, 2, 90, at(13, 0)));
+
+        assertEquals(List.of(0, 2), scheduler.saveAll(batch, true));
+        verify(screenings, never()).saveAll(any());
+
+        when(screenings.saveAll(any())).thenAnswer(inv -> {
+            List<Screening> accepted = inv.getArgument(0);
+            for (int i = 0; i < accepted.size(); i++) accepted.get(i).setId(100L + i);
+            return accepted;
+        });
+        assertEquals(List.of(0, 2), scheduler.saveAll(batch, false));
+        // the saved rows now take part in later checks
+        assertThrows(IllegalArgumentException.class, () -> scheduler.save(screening(null, 2, 2, 90, at(14, 0))));
+    }
+
+    @Test
+    void freeSlotsAreTheGapsBetweenScreenings() {
+        when(screenings.findAllSlots()).thenReturn(List.of(
+                slot(1, 1, 1, DAY.minusDays(1).atTime(23, 0), 120), slot(2, 1, 1, at(12, 0), 120), slot(3, 1, 1, at(15, 0), 120)));
+        scheduler.load();
+
+        assertEquals(List.of(new ScreeningScheduler.FreeSlot(at(1, 0), at(12, 0)), new ScreeningScheduler.FreeSlot(at(17, 0), DAY.plusDays(1).atStartOfDay())),
+                scheduler.freeSlots(1L, DAY, 120));
+        assertEquals(3, scheduler.freeSlots(1L, DAY, 0).size());
+
+        scheduler.delete(2L);
+        verify(screenings).deleteById(2L);
+        assertEquals(at(1, 0), scheduler.freeSlots(1L, DAY, 0).get(0).start());
+        assertEquals(at(15, 0), scheduler.freeSlots(1L, DAY, 0).get(0).end());
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.atTime(hour, minute);
+    }
+
+    private static Screening screening(Long id, long theaterId, long movieId, int duration, LocalDateTime start) {
+        Theater t = new Theater();
+        t.setId(theaterId);
+        Movie m = Movie.builder().id(movieId).duration(duration).build();
+        return Screening.builder().id(id).theater(t).movie(m).datetime(start).build();
+    }
+
+    private static ScreeningRepository.ScreeningSlot slot(long id, long theaterId, long movieId, LocalDateTime start, int duration) {
+        return new ScreeningRepository.ScreeningSlot() {
+            public Long getId() { return id; }
+            public Long getTheaterId() { return theaterId; }
+            public Long getMovieId() { return movieId; }
+            public LocalDateTime getStart() { return start; }
+            public int getDuration() { return duration; }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Seat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeatHoldServiceTest {
+    private final SeatInventory inventory = mock(SeatInventory.class);
+    private final SeatHoldService holds;
+
+    SeatHoldServiceTest() {
+        // one row of 6 seats, nothing sold
+        List<Seat> seats = new ArrayList<>();
+        for (int n = 1; n <= 6; n++) seats.add(Seat.builder().id((long) n).row("A").number(n).build());
+        TheaterLayout layout = new TheaterLayout(1L, seats);
+        when(inventory.seatMap(7L)).thenReturn(Optional.of(new SeatMap(7L, layout, 1, 1, new long[1], new long[1])));
+        holds = new SeatHoldService(inventory, 300, 10, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        holds.stop();
+    }
+
+    @Test
+    void aFailedHoldKeepsTheCallersEarlierHolds() {
+        holds.hold(7L, 1L, List.of(1L, 2L));
+        holds.hold(7L, 2L, List.of(3L));
+
+        // seat 2 is taken over first, then seat 3 belongs to someone else
+        assertThrows(DataIntegrityViolationException.class, () -> holds.hold(7L, 1L, List.of(2L, 3L)));
+        assertTrue(holds.isHeldBy(7L, 1L, List.of(1L, 2L)));
+        assertTrue(holds.isHeldBy(7L, 2L, List.of(3L)));
+
+        holds.hold(7L, 1L, List.of(4L));
+        assertEquals(Set.of(3L, 4L), holds.heldSeats(7L));
+    }
+}
@@ -0,0 +1,113 @@
+package com.risinglion.domain.service;
+
+import com.risinglion.domain.entity.Seat;
+import com.risinglion.domain.entity.Theater;
+import com.risinglion.domain.repo.ScreeningRepository;
+import com.risinglion.domain.repo.SeatRepository;
+import com.risinglion.domain.repo.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeatInventoryTest {
+    private final ScreeningRepository screenings = mock(ScreeningRepository.class);
+    private final SeatRepository seats = mock(SeatRepository.class);
+    private final TicketRepository tickets = mock(TicketRepository.class);
+    private SeatInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        // 3 rows (A-C) x 6 seats, seat id = row index * 10 + number
+        Theater theater = Theater.builder().id(1L).build();
+        List<Seat> layout = new ArrayList<>();
+        for (String row : List.of("A", "B", "C")) {
+            for (int n = 1; n <= 6; n++) {
+                layout.add(Seat.builder().id((row.charAt(0) - 'A') * 10L + n).row(row).number(n).theater(theater).build());
+            }
+        }
+        when(screenings.findTheaterIdById(7L)).thenReturn(Optional.of(1L));
+        when(seats.findByTheaterIdOrderByRowAscNumberAsc(1L)).thenReturn(layout);
+        when(tickets.findSeatIdsByScreeningId(7L)).thenReturn(List.of(26L));
+        inventory = new SeatInventory(screenings, seats, tickets, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void loadsSoldSeatsOnceAndAppliesCommittedBookings() {
+        assertTrue(inventory.anyTaken(7L, List.of(26L)));
+        assertFalse(inventory.anyTaken(7L, List.of(1L, 2L)));
+
+        long before = inventory.seatMap(7L).orElseThrow().version();
+        inventory.onSeatsBooked(new SeatsBookedEvent(7L, 3L, 1L, List.of(1L, 2L)));
+        SeatMap after = inventory.seatMap(7L).orElseThrow();
+
+        assertTrue(inventory.anyTaken(7L, List.of(2L)));
+        assertEquals(before + 1, after.version());
+        assertTrue(after.canDiffFrom(before));
+        assertTrue(after.changedSince(after.layout().positionOf(1L), before));
+        assertFalse(after.changedSince(after.layout().positionOf(26L), before));
+        // the load and its one catch-up read, then nothing more
+        verify(tickets, times(2)).findSeatIdsByScreeningId(7L);
+    }
+
+    @Test
+    void catchesUpWithBookingsCommittedWhileLoading() {
+        // seat 5 committed after the load's read, and its event found nothing to update yet
+        when(tickets.findSeatIdsByScreeningId(7L)).thenReturn(List.of(26L), List.of(26L, 5L));
+        inventory.onSeatsBooked(new SeatsBookedEvent(7L, 3L, 1L, List.of(5L)));
+        assertTrue(inventory.anyTaken(7L, List.of(5L)));
+        assertTrue(inventory.anyTaken(7L, List.of(26L)));
+    }
+
+    @Test
+    void aLoadInsideATransactionAnswersButIsNotCached() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertTrue(inventory.anyTaken(7L, List.of(26L)));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        // the next access outside a transaction loads again and keeps it
+        inventory.warm(7L);
+        inventory.anyTaken(7L, List.of(26L));
+        verify(tickets, times(3)).findSeatIdsByScreeningId(7L);
+    }
+
+    @Test
+    void unknownScreeningHasNoSeatMap() {
+        assertTrue(inventory.seatMap(99L).isEmpty());
+        assertFalse(inventory.anyTaken(99L, List.of(1L)));
+    }
+
+    @Test
+    void bestBlockPrefersTheCentreAndSkipsSoldAndHeldSeats() {
+        // middle row B is free; the centred pair is B3-B4
+        var block = inventory.bestBlock(7L, 2, Set.of()).orElseThrow();
+        assertEquals(List.of(13L, 14L), seatIds(block));
+
+        // with B3-B4 held, the centre of the front row beats the edges of row B
+        block = inventory.bestBlock(7L, 2, Set.of(13L, 14L)).orElseThrow();
+        assertEquals(List.of(3L, 4L), seatIds(block));
+
+        // once B3-B4 are sold, row B cannot fit four together any more
+        inventory.onSeatsBooked(new SeatsBookedEvent(7L, 3L, 1L, List.of(13L, 14L)));
+        block = inventory.bestBlock(7L, 4, Set.of()).orElseThrow();
+        assertEquals(List.of(2L, 3L, 4L, 5L), seatIds(block));
+
+        assertFalse(inventory.bestBlock(7L, 7, Set.of()).orElseThrow().found());
+    }
+
+    private static List<Long> seatIds(SeatInventory.SeatBlock block) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = block.from(); i < block.from() + block.count(); i++) ids.add(block.layout().seatId(i));
+        return ids;
+    }
+}
@@ -0,0 +1,46 @@
+package com.risinglion.security;
+
+import com.risinglion.util.error.GlobalExceptionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+    // one thread and one queue slot; cost 14 keeps a hash busy for well over a second
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(14, 1, 1);
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        encoder.close();
+    }
+
+    @Test
+    void rejectsOnceThePoolAndQueueAreFull() throws Exception {
+        Future<String> running = callers.submit(() -> encoder.encode("first"));
+        Thread.sleep(200);
+        Future<String> queued = callers.submit(() -> encoder.encode("second"));
+        Thread.sleep(200);
+
+        RejectedExecutionException ex = assertThrows(RejectedExecutionException.class, () -> encoder.matches("third", "$2a$04$x"));
+        var response = new GlobalExceptionHandler().handleRejected(ex);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        // the work already accepted still completes
+        String first = running.get(30, TimeUnit.SECONDS);
+        assertNotNull(queued.get(30, TimeUnit.SECONDS));
+        assertTrue(encoder.matches("first", first));
+    }
+}
@@ -0,0 +1,58 @@
+package com.risinglion.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+    // two requests a second with a burst of three; logins one at a time
+    private final RateLimitFilter filter = new RateLimitFilter(new RateLimitProperties(true, 600,
+            new RateLimitProperties.Quota(2, 3), List.of(new RateLimitProperties.Route("POST", "/api/auth/login", 1, 1))));
+
+    @AfterEach
+    void tearDown() {
+        filter.stop();
+    }
+
+    @Test
+    void allowsABurstThenAsksToWaitUntilTheBucketRefills() throws Exception {
+        for (int i = 0; i < 3; i++) assertEquals(200, get("/api/movies", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse limited = get("/api/movies", "10.0.0.1");
+        assertEquals(429, limited.getStatus());
+        // half a second to the next slot, rounded up to whole seconds
+        assertEquals("1", limited.getHeader(HttpHeaders.RETRY_AFTER));
+        // other clients have their own bucket
+        assertEquals(200, get("/api/movies", "10.0.0.2").getStatus());
+
+        Thread.sleep(600);
+        assertEquals(200, get("/api/movies", "10.0.0.1").getStatus());
+        assertEquals(429, get("/api/movies", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void routesHaveTheirOwnQuota() throws Exception {
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(429, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, get("/api/movies", "10.0.0.1").getStatus());
+    }
+
+    private MockHttpServletResponse get(String uri, String remoteAddr) throws Exception {
+        return send("GET", uri, remoteAddr);
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,177 @@
+package com.risinglion.web.controller;
+
+import com.risinglion.domain.entity.*;
+import com.risinglion.domain.repo.*;
+import com.risinglion.domain.service.MovieSearchIndex;
+import com.risinglion.domain.service.SeatInventory;
+import com.risinglion.security.AuthUser;
+import com.risinglion.security.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins how many SQL statements each read endpoint issues, so an association that starts loading
+ * row by row again shows up as a failing count. Caches are cleared before every request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadEndpointQueryCountTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("app.rateLimit.enabled", () -> false);
+        registry.add("app.security.tokenVersions.ttlSeconds", () -> 3600);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> true);
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired EntityManagerFactory entityManagerFactory;
+    @Autowired JwtService jwtService;
+    @Autowired MovieSearchIndex searchIndex;
+    @Autowired CategoryRepository categories;
+    @Autowired MovieRepository movies;
+    @Autowired TheaterRepository theaters;
+    @Autowired SeatRepository seats;
+    @Autowired ScreeningRepository screenings;
+    @Autowired UserRepository users;
+    @Autowired BookingRepository bookings;
+    @Autowired ReviewRepository reviews;
+
+    private Statistics statistics;
+    private String userToken;
+    private String adminToken;
+    private Movie movie;
+    private Screening screening;
+    private Screening unseenScreening;
+
+    @BeforeAll
+    void seed() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Category> cats = List.of(categories.save(Category.builder().name("Count A").build()),
+                categories.save(Category.builder().name("Count B").build()));
+        List<Movie> ms = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ms.add(movies.save(Movie.builder().title("Count " + i).duration(90).description("d").category(cats.get(i % 2)).build()));
+        }
+        ms.forEach(searchIndex::put);
+        movie = ms.get(0);
+        List<Theater> ts = new ArrayList<>();
+        List<List<Seat>> layouts = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            Theater theater = theaters.save(Theater.builder().build());
+            List<Seat> layout = new ArrayList<>();
+            for (String row : List.of("A", "B")) {
+                for (int n = 1; n <= 5; n++) layout.add(seats.save(Seat.builder().row(row).number(n).theater(theater).build()));
+            }
+            ts.add(theater);
+            layouts.add(layout);
+        }
+        List<Screening> shown = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            // the last theater is kept for the seat map test, so its layout is loaded there first
+            shown.add(screenings.save(Screening.builder().movie(ms.get(i % 4)).theater(ts.get(i % 2))
+                    .datetime(DAY.atTime(10 + i * 2, 0)).ticketPrice(new BigDecimal("10")).build()));
+        }
+        screening = shown.get(0);
+        unseenScreening = screenings.save(Screening.builder().movie(movie).theater(ts.get(2))
+                .datetime(DAY.atTime(11, 0)).ticketPrice(new BigDecimal("10")).build());
+
+        User user = users.save(User.builder().username("counter").email("counter@example.com").password("x").build());
+        User admin = users.save(User.builder().username("count-admin").email("count-admin@example.com").password("x").isAdmin(true).build());
+        for (int b = 0; b < 3; b++) {
+            Booking booking = Booking.builder().user(user).screening(screening).totalPrice(new BigDecimal("20")).build();
+            for (int s = 0; s < 2; s++) {
+                booking.getTickets().add(Ticket.builder().booking(booking).screening(screening).seat(layouts.get(0).get(b * 2 + s)).build());
+            }
+            bookings.save(booking);
+        }
+        reviews.save(Review.builder().rating(5).text("great").user(user).movie(movie).build());
+        reviews.save(Review.builder().rating(3).text("fine").user(admin).movie(movie).build());
+
+        userToken = "Bearer " + jwtService.generateToken(new AuthUser(user.getId(), user.getEmail(), false), 0);
+        adminToken = "Bearer " + jwtService.generateToken(new AuthUser(admin.getId(), admin.getEmail(), true), 0);
+        // token versions are looked up once per user, outside of what is measured
+        mvc.perform(get("/api/users/me").header("Authorization", userToken)).andExpect(status().isOk());
+        mvc.perform(get("/api/users/me").header("Authorization", adminToken)).andExpect(status().isOk());
+    }
+
+    @Test
+    void screeningsIssueOneStatement() throws Exception {
+        assertEquals(1, statements("/api/screenings?date=" + DAY, null));
+        assertEquals(1, statements("/api/screenings/" + screening.getId(), null));
+        // the day is cached now: the same day again and its per-movie view need no query, a range only the new day
+        assertEquals(0, statements("/api/screenings?date=" + DAY, null));
+        assertEquals(0, statements("/api/movies/" + movie.getId() + "/screenings?date=" + DAY, null));
+        assertEquals(1, statements("/api/screenings?from=" + DAY + "&to=" + DAY.plusDays(1), null));
+        assertEquals(1, statements("/api/theaters", null));
+    }
+
+    @Test
+    void moviesLoadTheirCategoryInTheSameStatement() throws Exception {
+        assertEquals(1, statements("/api/movies/" + movie.getId(), null));
+        assertEquals(1, statements("/api/movies?page=0", null));
+        assertEquals(0, statements("/api/movies/search?query=count", null));
+        assertEquals(1, statements("/api/categories", null));
+        assertEquals(1, statements("/api/movies/" + movie.getId() + "/reviews", null));
+    }
+
+    @Test
+    void bookingsLoadTheirTicketsInTheSameStatement() throws Exception {
+        assertEquals(1, statements("/api/bookings/me", userToken));
+        assertEquals(1, statements("/api/screenings/" + screening.getId() + "/bookings", adminToken));
+    }
+
+    @Test
+    void usersIssueOneStatement() throws Exception {
+        assertEquals(1, statements("/api/users/me", userToken));
+        assertEquals(1, statements("/api/admin/users", adminToken));
+    }
+
+    @Test
+    void seatMapIsLoadedOnceThenServedFromMemory() throws Exception {
+        // theater id, seat layout, sold seats and the catch-up read of sold seats; afterwards the in-memory inventory answers
+        assertEquals(4, statements("/api/screenings/" + unseenScreening.getId() + "/seats", null));
+        assertEquals(0, statements("/api/screenings/" + unseenScreening.getId() + "/seats", null));
+    }
+
+    private long statements(String url, String authorization) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        long before = statistics.getPrepareStatementCount();
+        var request = get(url);
+        if (authorization != null) request.header("Authorization", authorization);
+        mvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
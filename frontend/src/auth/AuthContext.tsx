@@ -30,6 +30,7 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
     const res = await fetch(`${API}/auth/login`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify({ email, password }) })
     if (!res.ok) throw new Error('Login failed')
     const data = await res.json()
+    storeRefreshToken(data.refreshToken)
     setToken(data.accessToken)
     setUser(data.user)
   }
@@ -38,11 +39,27 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
     const res = await fetch(`${API}/auth/signup`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify({ username, email, password }) })
     if (!res.ok) throw new Error('Signup failed')
     const data = await res.json()
+    storeRefreshToken(data.refreshToken)
     setToken(data.accessToken)
     setUser(data.user)
   }
 
-  function logout() { setToken(null); setUser(null) }
+  function logout() {
+    const refreshToken = localStorage.getItem('refreshToken')
+    if (refreshToken) {
+      fetch(`${API}/auth/logout`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify({ refreshToken }) }).catch(() => {})
+    }
+    storeRefreshToken(null)
+    setToken(null)
+    setUser(null)
+  }
+
+  // authFetch refreshes the access token outside React; pick the new one up here
+  useEffect(() => {
+    const onRefreshed = () => setToken(localStorage.getItem('token'))
+    window.addEventListener('auth-refreshed', onRefreshed)
+    return () => window.removeEventListener('auth-refreshed', onRefreshed)
+  }, [])
 
   const value = useMemo(() => ({ token, user, login, signup, logout }), [token, user])
   return <AuthContext.Provider value={value}>{children}</AuthContext.Provider>
@@ -50,16 +67,48 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
 
 export function useAuth() { return useContext(AuthContext) }
 
+function storeRefreshToken(refreshToken: string | null) {
+  if (refreshToken) localStorage.setItem('refreshToken', refreshToken); else localStorage.removeItem('refreshToken')
+}
+
+// one refresh in flight at a time: refresh tokens are single use, so parallel 401s must share it
+let refreshing: Promise<boolean> | null = null
+
+function refreshSession(): Promise<boolean> {
+  if (!refreshing) {
+    refreshing = (async () => {
+      const refreshToken = localStorage.getItem('refreshToken')
+      if (!refreshToken) return false
+      const res = await fetch(`${API}/auth/refresh`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify({ refreshToken }) })
+      if (!res.ok) return false
+      const data = await res.json()
+      localStorage.setItem('token', data.accessToken)
+      storeRefreshToken(data.refreshToken)
+      window.dispatchEvent(new Event('auth-refreshed'))
+      return true
+    })().catch(() => false).finally(() => { refreshing = null })
+  }
+  return refreshing
+}
+
 export async function authFetch(input: RequestInfo, init?: RequestInit) {
-  const token = localStorage.getItem('token')
-  const headers = new Headers(init?.headers || {})
-  if (token) headers.set('Authorization', `Bearer ${token}`)
-  const res = await fetch(input, { ...init, headers })
-  // If unauthorized, clear session and redirect to login
+  const send = () => {
+    const token = localStorage.getItem('token')
+    const headers = new Headers(init?.headers || {})
+    if (token) headers.set('Authorization', `Bearer ${token}`)
+    return fetch(input, { ...init, headers })
+  }
+  let res = await send()
+  // An expired access token is renewed once with the refresh token before giving up
+  if (res.status === 401 && await refreshSession()) {
+    res = await send()
+  }
+  // If still unauthorized, clear session and redirect to login
   if (res.status === 401) {
     try {
       localStorage.removeItem('token')
       localStorage.removeItem('user')
+      storeRefreshToken(null)
     } finally {
       if (window.location.pathname !== '/login') {
         window.location.href = '/login?session=expired'
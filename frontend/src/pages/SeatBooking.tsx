@@ -26,20 +26,38 @@ export default function SeatBooking() {
 
   const total = useMemo(() => (screening ? selected.length * Number(screening.ticketPrice) : selected.length), [selected, screening])
 
-  function toggleSeat(id: number, taken: boolean) {
+  function holdSeats(seatIds: number[]) {
+    return authFetch(`${API}/screenings/${screeningId}/holds`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify({ seatIds }) })
+  }
+
+  async function toggleSeat(id: number, taken: boolean) {
     if (taken) return
-    setSelected(prev => prev.includes(id) ? prev.filter(x => x !== id) : [...prev, id])
+    const next = selected.includes(id) ? selected.filter(x => x !== id) : [...selected, id]
+    // signed-in users hold their selection right away; guests get it held when they book
+    if (user) {
+      const res = await holdSeats(next)
+      if (res.status === 409) {
+        window.dispatchEvent(new CustomEvent('app-error', { detail: { message: 'This seat is being booked by someone else.' } }))
+        return
+      }
+      if (!res.ok) return
+    }
+    setSelected(next)
+  }
+
+  async function reselect() {
+    window.dispatchEvent(new CustomEvent('app-error', { detail: { message: 'Some seats were just taken. Please reselect.' } }))
+    setSelected([])
+    setSeats(await (await fetch(`${API}/screenings/${screeningId}/seats`)).json())
   }
 
   async function book() {
     if (!user) { navigate('/login'); return }
+    const hold = await holdSeats(selected)
+    if (hold.status === 409) { await reselect(); return }
+    if (!hold.ok) return
     const res = await authFetch(`${API}/bookings`, { method: 'POST', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify({ screeningId: Number(screeningId), seatIds: selected }) })
-    if (res.status === 409) {
-      window.dispatchEvent(new CustomEvent('app-error', { detail: { message: 'Some seats were just taken. Please reselect.' } }))
-      setSelected([])
-      setSeats(await (await fetch(`${API}/screenings/${screeningId}/seats`)).json())
-      return
-    }
+    if (res.status === 409) { await reselect(); return }
     if (!res.ok) {
       try { const p = await res.json(); if (p?.detail || p?.message) { window.dispatchEvent(new CustomEvent('app-error', { detail: { message: p.detail || p.message } })) } }
       catch { /* no message -> show nothing; button state unchanged */ }